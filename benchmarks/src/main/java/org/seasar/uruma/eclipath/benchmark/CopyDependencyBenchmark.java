@@ -0,0 +1,148 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seasar.uruma.eclipath.LibraryManifests;
+import org.seasar.uruma.eclipath.model.FileDependency;
+import org.seasar.uruma.eclipath.model.MaterializationStrategy;
+
+/**
+ * Benchmarks of {@link FileDependency#copyLibraryArtifact()} for each
+ * {@link MaterializationStrategy}.<br />
+ * {@code cold} materializes all libraries into an empty directory, and
+ * {@code warm} checks libraries which are already up to date.
+ *
+ * @author y-komori
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CopyDependencyBenchmark {
+    private static final int LIBRARIES = 20;
+
+    /**
+     * Local repository fixture and the dependencies which refer to it.
+     */
+    @State(Scope.Thread)
+    public static class Libraries {
+        @Param({ "copy", "hardlink", "symlink", "reflink", "auto" })
+        public String strategy;
+
+        @Param({ "65536", "4194304" })
+        public int size;
+
+        public File localRepositoryDir;
+
+        public File projectDir;
+
+        public File libDir;
+
+        public List<FileDependency> dependencies;
+
+        public LibraryManifests manifests;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Fixtures.initLogger();
+            localRepositoryDir = Fixtures.createTempDir("repository");
+            projectDir = Fixtures.createTempDir("project");
+            libDir = new File(projectDir, Fixtures.LIB_DIR);
+            MaterializationStrategy materializationStrategy = MaterializationStrategy.fromConfName(strategy);
+            manifests = new LibraryManifests(localRepositoryDir);
+            dependencies = new ArrayList<FileDependency>(LIBRARIES);
+            for (int i = 0; i < LIBRARIES; i++) {
+                FileDependency dependency = new FileDependency(Fixtures.createResolvedArtifact(localRepositoryDir,
+                        i, size), projectDir, Fixtures.LIB_DIR, materializationStrategy);
+                dependency.setLibraryManifests(manifests);
+                dependencies.add(dependency);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Fixtures.delete(localRepositoryDir);
+            Fixtures.delete(projectDir);
+        }
+    }
+
+    /**
+     * Empties the library directory before every invocation.
+     */
+    @State(Scope.Thread)
+    public static class Cold {
+        @Setup(Level.Invocation)
+        public void setUp(Libraries libraries) throws IOException {
+            FileUtils.deleteQuietly(libraries.libDir);
+            FileUtils.forceMkdir(libraries.libDir);
+        }
+    }
+
+    /**
+     * Materializes all libraries once before the measurement.
+     */
+    @State(Scope.Thread)
+    public static class Warm {
+        @Setup(Level.Iteration)
+        public void setUp(Libraries libraries) throws IOException {
+            for (FileDependency dependency : libraries.dependencies) {
+                dependency.copyLibraryArtifact();
+            }
+            libraries.manifests.storeAll();
+        }
+    }
+
+    @Benchmark
+    public int cold(Libraries libraries, Cold cold) throws IOException {
+        return copyAll(libraries);
+    }
+
+    @Benchmark
+    public int warm(Libraries libraries, Warm warm) throws IOException {
+        return copyAll(libraries);
+    }
+
+    private int copyAll(Libraries libraries) throws IOException {
+        int copied = 0;
+        for (FileDependency dependency : libraries.dependencies) {
+            if (dependency.copyLibraryArtifact() != null) {
+                copied++;
+            }
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seasar.uruma.eclipath.model.ArtifactFileName;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * Benchmarks of the path and file name computations of
+ * {@link EclipathArtifact} and {@link ArtifactFileName}.
+ *
+ * @author y-komori
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EclipathArtifactBenchmark {
+    @Param({ "release", "snapshot", "classifier" })
+    public String kind;
+
+    private EclipathArtifact artifact;
+
+    private String libraryPath;
+
+    @Setup
+    public void setUp() {
+        if ("snapshot".equals(kind)) {
+            artifact = Fixtures.createArtifact("commons-lang", "2.7-SNAPSHOT", null);
+        } else if ("classifier".equals(kind)) {
+            artifact = Fixtures.createArtifact("commons-lang", "2.6", "sources");
+        } else {
+            artifact = Fixtures.createArtifact("commons-lang", "2.6", null);
+        }
+        libraryPath = Fixtures.LIB_DIR + "/" + artifact.getFileName();
+    }
+
+    @Benchmark
+    public String getRepositoryPath() {
+        return artifact.getRepositoryPath();
+    }
+
+    @Benchmark
+    public String getFileName() {
+        return artifact.getFileName();
+    }
+
+    @Benchmark
+    public String getVersionIndependentKey() {
+        return artifact.getVersionIndependentKey();
+    }
+
+    @Benchmark
+    public ArtifactFileName parseLibraryPath() {
+        return ArtifactFileName.parse(libraryPath);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seasar.uruma.eclipath.classpath.EclipseClasspath;
+import org.seasar.uruma.eclipath.model.ClasspathKind;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Benchmarks of {@link EclipseClasspath} operations on {@code .classpath}
+ * files of various sizes.<br />
+ * The add, remove and write benchmarks modify the document, so every
+ * invocation works on its own copy, which is loaded before the iteration.
+ * They are measured in batches of {@value #BATCH_SIZE} invocations, and their
+ * score is the time of a batch.
+ *
+ * @author y-komori
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EclipseClasspathBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    private static final String NEW_LIBRARY_PATH = Fixtures.LIB_DIR + "/added-library-9.9.jar";
+
+    /**
+     * Project directory which holds a generated {@code .classpath}.
+     */
+    @State(Scope.Benchmark)
+    public static class Project {
+        @Param({ "50", "500", "5000" })
+        public int entries;
+
+        public File projectDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Fixtures.initLogger();
+            projectDir = Fixtures.createTempDir("classpath");
+            Fixtures.writeClasspath(projectDir, entries);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Fixtures.delete(projectDir);
+        }
+    }
+
+    /**
+     * {@code .classpath} loaded once per trial, for read only benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class Loaded {
+        public EclipseClasspath classpath;
+
+        public String firstPath;
+
+        public String middlePath;
+
+        public String missingPath;
+
+        @Setup(Level.Trial)
+        public void setUp(Project project) {
+            classpath = new EclipseClasspath(project.projectDir);
+            classpath.load();
+            firstPath = Fixtures.libraryPath(0);
+            middlePath = Fixtures.libraryPath(project.entries / 2);
+            missingPath = NEW_LIBRARY_PATH;
+        }
+    }
+
+    /**
+     * Copies of {@code .classpath} loaded before every iteration, one for each
+     * invocation of benchmarks which modify the document.
+     */
+    @State(Scope.Thread)
+    public static class Fresh {
+        private EclipseClasspath[] classpaths;
+
+        private Element[] middleEntries;
+
+        private int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(Project project) {
+            classpaths = new EclipseClasspath[BATCH_SIZE];
+            middleEntries = new Element[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                classpaths[i] = new EclipseClasspath(project.projectDir);
+                classpaths[i].load();
+                middleEntries[i] = classpaths[i].findClasspathEntry(Fixtures.libraryPath(project.entries / 2));
+            }
+            next = 0;
+        }
+
+        public EclipseClasspath classpath() {
+            return classpaths[next];
+        }
+
+        public Element middleEntry() {
+            return middleEntries[next];
+        }
+
+        public void advance() {
+            next++;
+        }
+    }
+
+    /**
+     * Copies of a {@code .classpath} in its own directory. Every other copy
+     * toggles an entry, so that each invocation of the write benchmark writes
+     * a changed file. {@link #BATCH_SIZE} is even, so the file is restored at
+     * the end of each iteration.
+     */
+    @State(Scope.Thread)
+    public static class Writable {
+        public File projectDir;
+
+        private EclipseClasspath[] classpaths;
+
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUpTrial(Project project) throws IOException {
+            projectDir = Fixtures.createTempDir("write");
+            Fixtures.writeClasspath(projectDir, project.entries);
+        }
+
+        @Setup(Level.Iteration)
+        public void setUpIteration() {
+            classpaths = new EclipseClasspath[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                EclipseClasspath classpath = new EclipseClasspath(projectDir);
+                classpath.load();
+                if (i % 2 == 0) {
+                    Element entry = classpath.findClasspathEntry(NEW_LIBRARY_PATH);
+                    if (entry != null) {
+                        classpath.removeClasspathEntryElement(entry);
+                    } else {
+                        classpath.addClasspathEntry(ClasspathKind.LIB, NEW_LIBRARY_PATH, null, null);
+                    }
+                }
+                classpaths[i] = classpath;
+            }
+            next = 0;
+        }
+
+        public EclipseClasspath next() {
+            return classpaths[next++];
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Fixtures.delete(projectDir);
+        }
+    }
+
+    @Benchmark
+    public Document load(Project project) {
+        return new EclipseClasspath(project.projectDir).load();
+    }
+
+    @Benchmark
+    public Element findFirst(Loaded loaded) {
+        return loaded.classpath.findClasspathEntry(loaded.firstPath);
+    }
+
+    @Benchmark
+    public Element findMiddle(Loaded loaded) {
+        return loaded.classpath.findClasspathEntry(loaded.middlePath);
+    }
+
+    @Benchmark
+    public Element findMissing(Loaded loaded) {
+        return loaded.classpath.findClasspathEntry(loaded.missingPath);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 10, batchSize = BATCH_SIZE)
+    public EclipseClasspath add(Fresh fresh) {
+        EclipseClasspath classpath = fresh.classpath();
+        fresh.advance();
+        classpath.addClasspathEntry(ClasspathKind.LIB, NEW_LIBRARY_PATH, null, null);
+        return classpath;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 10, batchSize = BATCH_SIZE)
+    public EclipseClasspath remove(Fresh fresh) {
+        EclipseClasspath classpath = fresh.classpath();
+        Element entry = fresh.middleEntry();
+        fresh.advance();
+        classpath.removeClasspathEntryElement(entry);
+        return classpath;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = BATCH_SIZE)
+    @Measurement(iterations = 10, batchSize = BATCH_SIZE)
+    public void write(Writable writable) {
+        writable.next().write();
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.plugin.logging.Log;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * Generates on-disk fixtures for the benchmarks.<br />
+ * Fixtures are created under {@code java.io.tmpdir}, so that the benchmarks
+ * run offline.
+ *
+ * @author y-komori
+ */
+public final class Fixtures {
+    public static final String GROUP_ID = "org.seasar.uruma.bench";
+
+    public static final String LIB_DIR = "lib";
+
+    private Fixtures() {
+    }
+
+    /**
+     * Initializes {@link Logger} with a log which discards all messages.
+     */
+    public static void initLogger() {
+        Logger.initialize(new QuietLog());
+    }
+
+    /**
+     * Creates a new temporary directory.
+     *
+     * @param prefix
+     *        prefix of the directory name
+     * @return created directory
+     * @throws IOException
+     *         if the directory can't be created
+     */
+    public static File createTempDir(String prefix) throws IOException {
+        File dir = File.createTempFile("eclipath-" + prefix + "-", "");
+        if (!dir.delete() || !dir.mkdirs()) {
+            throw new IOException("Failed to create directory. : " + dir.getAbsolutePath());
+        }
+        return dir;
+    }
+
+    /**
+     * Deletes the directory quietly.
+     *
+     * @param dir
+     *        directory to delete
+     */
+    public static void delete(File dir) {
+        if (dir != null) {
+            FileUtils.deleteQuietly(dir);
+        }
+    }
+
+    /**
+     * Returns the artifact id of the library at the index.
+     *
+     * @param index
+     *        index
+     * @return artifact id
+     */
+    public static String artifactId(int index) {
+        return "library-" + index;
+    }
+
+    /**
+     * Returns the version of the library at the index.
+     *
+     * @param index
+     *        index
+     * @return version
+     */
+    public static String version(int index) {
+        return "1." + (index % 10) + "." + (index % 3);
+    }
+
+    /**
+     * Returns the library path of the {@code .classpath} entry at the index.
+     *
+     * @param index
+     *        index
+     * @return library path
+     */
+    public static String libraryPath(int index) {
+        return LIB_DIR + "/" + artifactId(index) + "-" + version(index) + ".jar";
+    }
+
+    /**
+     * Writes a {@code .classpath} file which has the specified number of
+     * library entries, together with a source folder, an output folder and
+     * the JRE container.
+     *
+     * @param projectDir
+     *        project directory
+     * @param entries
+     *        number of library entries
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public static void writeClasspath(File projectDir, int entries) throws IOException {
+        StringBuilder buf = new StringBuilder(entries * 160 + 512);
+        buf.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        buf.append("<classpath>\n");
+        buf.append("  <classpathentry kind=\"src\" path=\"src/main/java\"/>\n");
+        buf.append("  <classpathentry kind=\"output\" path=\"target/classes\"/>\n");
+        for (int i = 0; i < entries; i++) {
+            String path = libraryPath(i);
+            buf.append("  <classpathentry kind=\"lib\" path=\"").append(path).append("\"");
+            if (i % 2 == 0) {
+                buf.append(" sourcepath=\"").append(LIB_DIR).append("/sources/").append(artifactId(i)).append('-')
+                        .append(version(i)).append("-sources.jar\"");
+            }
+            if (i % 4 == 0) {
+                buf.append(">\n");
+                buf.append("    <attributes>\n");
+                buf.append("      <attribute name=\"javadoc_location\" value=\"jar:platform:/resource/bench/")
+                        .append(LIB_DIR).append("/javadoc/").append(artifactId(i)).append('-').append(version(i))
+                        .append("-javadoc.jar!/\"/>\n");
+                buf.append("    </attributes>\n");
+                buf.append("  </classpathentry>\n");
+            } else {
+                buf.append("/>\n");
+            }
+        }
+        buf.append("  <classpathentry kind=\"con\" path=\"org.eclipse.jdt.launching.JRE_CONTAINER\"/>\n");
+        buf.append("</classpath>\n");
+        FileUtils.writeStringToFile(new File(projectDir, ".classpath"), buf.toString(), "UTF-8");
+    }
+
+    /**
+     * Creates an artifact which is not resolved.
+     *
+     * @param artifactId
+     *        artifact id
+     * @param version
+     *        version
+     * @param classifier
+     *        classifier, or {@code null}
+     * @return artifact
+     */
+    public static EclipathArtifact createArtifact(String artifactId, String version, String classifier) {
+        Artifact artifact = new DefaultArtifact(GROUP_ID, artifactId, version, Artifact.SCOPE_COMPILE, "jar",
+                classifier, new DefaultArtifactHandler("jar"));
+        return new EclipathArtifact(artifact);
+    }
+
+    /**
+     * Creates an artifact which is resolved to a file of the local repository
+     * fixture. The file is filled with random bytes if it doesn't exist.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     * @param index
+     *        index of the library
+     * @param size
+     *        file size in bytes
+     * @return resolved artifact
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public static EclipathArtifact createResolvedArtifact(File localRepositoryDir, int index, int size)
+            throws IOException {
+        EclipathArtifact eclipathArtifact = createArtifact(artifactId(index), version(index), null);
+        File file = new File(localRepositoryDir, eclipathArtifact.getRepositoryPath());
+        if (!file.exists()) {
+            byte[] data = new byte[size];
+            new Random(index).nextBytes(data);
+            FileUtils.writeByteArrayToFile(file, data);
+        }
+        Artifact artifact = eclipathArtifact.getArtifact();
+        artifact.setFile(file);
+        artifact.setResolved(true);
+        return eclipathArtifact;
+    }
+
+    /**
+     * {@link Log} which discards all messages.
+     */
+    private static class QuietLog implements Log {
+        @Override
+        public boolean isDebugEnabled() {
+            return false;
+        }
+
+        @Override
+        public void debug(CharSequence content) {
+        }
+
+        @Override
+        public void debug(CharSequence content, Throwable error) {
+        }
+
+        @Override
+        public void debug(Throwable error) {
+        }
+
+        @Override
+        public boolean isInfoEnabled() {
+            return false;
+        }
+
+        @Override
+        public void info(CharSequence content) {
+        }
+
+        @Override
+        public void info(CharSequence content, Throwable error) {
+        }
+
+        @Override
+        public void info(Throwable error) {
+        }
+
+        @Override
+        public boolean isWarnEnabled() {
+            return false;
+        }
+
+        @Override
+        public void warn(CharSequence content) {
+        }
+
+        @Override
+        public void warn(CharSequence content, Throwable error) {
+        }
+
+        @Override
+        public void warn(Throwable error) {
+        }
+
+        @Override
+        public boolean isErrorEnabled() {
+            return false;
+        }
+
+        @Override
+        public void error(CharSequence content) {
+        }
+
+        @Override
+        public void error(CharSequence content, Throwable error) {
+        }
+
+        @Override
+        public void error(Throwable error) {
+        }
+    }
+}
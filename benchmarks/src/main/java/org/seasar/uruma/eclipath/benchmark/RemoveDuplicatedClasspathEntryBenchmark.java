@@ -0,0 +1,126 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.seasar.uruma.eclipath.classpath.EclipseClasspath;
+import org.seasar.uruma.eclipath.model.Dependency;
+import org.seasar.uruma.eclipath.model.FileDependency;
+import org.seasar.uruma.eclipath.mojo.SyncMojo;
+
+/**
+ * Benchmark of {@link SyncMojo#removeDuplicatedClasspathEntry}.<br />
+ * Each invocation upgrades a library which is registered in the middle of the
+ * {@code .classpath}, so that the old version entry is removed. Every
+ * invocation works on its own copy of the document, which is loaded before the
+ * iteration. The score is the time of a batch of {@value #BATCH_SIZE}
+ * invocations.
+ *
+ * @author y-komori
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = RemoveDuplicatedClasspathEntryBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = RemoveDuplicatedClasspathEntryBenchmark.BATCH_SIZE)
+@Fork(1)
+@State(Scope.Thread)
+public class RemoveDuplicatedClasspathEntryBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    @Param({ "50", "500", "5000" })
+    public int entries;
+
+    private File projectDir;
+
+    private Harness harness;
+
+    private Dependency upgraded;
+
+    private Dependency unchanged;
+
+    private EclipseClasspath[] classpaths;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        Fixtures.initLogger();
+        projectDir = Fixtures.createTempDir("duplicated");
+        Fixtures.writeClasspath(projectDir, entries);
+        harness = new Harness();
+
+        int index = entries / 2;
+        upgraded = new FileDependency(Fixtures.createArtifact(Fixtures.artifactId(index), "2.0.0", null),
+                projectDir, Fixtures.LIB_DIR);
+        unchanged = new FileDependency(Fixtures.createArtifact(Fixtures.artifactId(index + 1),
+                Fixtures.version(index + 1), null), projectDir, Fixtures.LIB_DIR);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        classpaths = new EclipseClasspath[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            classpaths[i] = new EclipseClasspath(projectDir);
+            classpaths[i].load();
+        }
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Fixtures.delete(projectDir);
+    }
+
+    @Benchmark
+    public EclipseClasspath upgrade() {
+        EclipseClasspath classpath = classpaths[next++];
+        harness.removeDuplicatedClasspathEntry(classpath, upgraded);
+        return classpath;
+    }
+
+    @Benchmark
+    public EclipseClasspath noChange() {
+        EclipseClasspath classpath = classpaths[next++];
+        harness.removeDuplicatedClasspathEntry(classpath, unchanged);
+        return classpath;
+    }
+
+    /**
+     * Exposes the protected method of {@link SyncMojo}.
+     */
+    private static class Harness extends SyncMojo {
+        @Override
+        protected void removeDuplicatedClasspathEntry(EclipseClasspath eclipseClasspath, Dependency dependency) {
+            super.removeDuplicatedClasspathEntry(eclipseClasspath, dependency);
+        }
+    }
+}
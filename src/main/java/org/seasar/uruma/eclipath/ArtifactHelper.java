@@ -16,22 +16,41 @@
 package org.seasar.uruma.eclipath;
 
 import java.io.File;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
-import org.apache.commons.io.FileUtils;
+import org.apache.maven.RepositoryUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DefaultArtifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
 import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.repository.RepositorySystem;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryListener;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.util.listener.ChainedRepositoryListener;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
 import org.seasar.uruma.eclipath.exception.ArtifactResolutionRuntimeException;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
 import org.seasar.uruma.eclipath.model.Scope;
+import org.seasar.uruma.eclipath.report.BuildReport;
+import org.seasar.uruma.eclipath.report.Counter;
 
 /**
  * Utility class for resolving artifacts.
@@ -43,8 +62,6 @@ public class ArtifactHelper {
 
     public static final String JAVADOC_CLASSIFIER = "javadoc";
 
-    protected static final String NOT_AVAILABLE_SUFFIX = "-not-available";
-
     protected RepositorySystem repositorySystem;
 
     protected ArtifactRepository localRepository;
@@ -53,6 +70,22 @@ public class ArtifactHelper {
 
     protected WorkspaceConfigurator workspaceConfigurator;
 
+    protected org.eclipse.aether.RepositorySystem aetherSystem;
+
+    protected RepositorySystemSession repositorySession;
+
+    protected List<RemoteRepository> remoteProjectRepositories;
+
+    protected NegativeResolutionCache negativeResolutionCache;
+
+    protected ResolutionCache resolutionCache;
+
+    protected BuildReport buildReport;
+
+    protected RepositoryListener repositoryListener;
+
+    protected TransferListener transferListener;
+
     public Set<Artifact> filterArtifacts(Set<Artifact> artifacts, List<String> excludeGroups, List<String> excludeScopes) {
         Set<Artifact> excluded = new TreeSet<Artifact>();
         List<Artifact> removeArtifacts = new LinkedList<Artifact>();
@@ -75,6 +108,12 @@ public class ArtifactHelper {
         return excluded;
     }
 
+    public EclipathArtifact createArtifact(String groupId, String artifactId, String version, String type,
+            String classifier) {
+        return new EclipathArtifact(repositorySystem.createArtifactWithClassifier(groupId, artifactId, version,
+                type, classifier));
+    }
+
     public EclipathArtifact createSourceArtifact(EclipathArtifact baseArtifact) {
         return createArtifactWithClassifier(baseArtifact, SOURCES_CLASSIFIER);
     }
@@ -101,20 +140,13 @@ public class ArtifactHelper {
     }
 
     public void resolve(EclipathArtifact artifact, boolean throwOnError, boolean forceResolve) {
-        // TODO Maven3 では必要?
         // Check if jar is not available
-        File notAvailableFile = null;
-        if (workspaceConfigurator.isConfigured()) {
-            String notAvailablePath = workspaceConfigurator.getClasspathVariableM2REPO() + "/"
-                    + artifact.getRepositoryPath() + NOT_AVAILABLE_SUFFIX;
-            notAvailableFile = new File(notAvailablePath);
-            if (!forceResolve) {
-                if (!throwOnError && notAvailableFile.exists()) {
-                    return;
-                }
-            } else {
-                notAvailableFile.delete();
+        if (!forceResolve) {
+            if (!throwOnError && isNotAvailable(artifact)) {
+                return;
             }
+        } else {
+            invalidateNotAvailable(artifact);
         }
 
         // prepare artifact resolution request
@@ -132,11 +164,8 @@ public class ArtifactHelper {
                 Logger.info("  resolved: " + resolvedSrcArtifact.toString());
             }
         } else {
-            try {
-                if (result.hasMissingArtifacts() && notAvailableFile != null) {
-                    FileUtils.touch(notAvailableFile);
-                }
-            } catch (IOException ignore) {
+            if (result.hasMissingArtifacts() && !throwOnError) {
+                markNotAvailable(artifact);
             }
 
             if (throwOnError) {
@@ -147,6 +176,219 @@ public class ArtifactHelper {
         }
     }
 
+    /**
+     * Resolves the specified artifacts with a single request to the repository
+     * system. Resolved files are set to each {@link EclipathArtifact}. Source
+     * and javadoc artifacts which are known as not available are not requested
+     * unless {@code forceResolve} is {@code true}.
+     *
+     * @param artifacts
+     *        artifacts to resolve
+     * @param forceResolve
+     *        if {@code true}, checks remote repositories for updates
+     * @return the resolution result of each artifact, in the order of
+     *         {@code artifacts}
+     */
+    public Map<EclipathArtifact, ArtifactResult> resolveAll(Collection<EclipathArtifact> artifacts,
+            boolean forceResolve) {
+        Map<EclipathArtifact, ArtifactResult> results = new LinkedHashMap<EclipathArtifact, ArtifactResult>();
+        List<EclipathArtifact> requestedArtifacts = new ArrayList<EclipathArtifact>(artifacts.size());
+        List<ArtifactRequest> requests = new ArrayList<ArtifactRequest>(artifacts.size());
+        for (EclipathArtifact artifact : artifacts) {
+            if (!forceResolve && resolutionCache != null) {
+                ArtifactResult cached = resolutionCache.get(artifact, remoteProjectRepositories);
+                if (cached != null) {
+                    count(Counter.RESOLUTION_CACHE_HITS);
+                    if (cached.isResolved()) {
+                        setResolved(artifact, cached);
+                    }
+                    results.put(artifact, cached);
+                    continue;
+                }
+            }
+
+            ArtifactRequest request = new ArtifactRequest(RepositoryUtils.toArtifact(artifact.getArtifact()),
+                    remoteProjectRepositories, null);
+            if (isAttachment(artifact)) {
+                if (!forceResolve && isNotAvailable(artifact)) {
+                    count(Counter.NEGATIVE_CACHE_HITS);
+                    ArtifactResult result = new ArtifactResult(request);
+                    result.addException(new ArtifactNotFoundException(request.getArtifact(), null));
+                    results.put(artifact, result);
+                    continue;
+                }
+                invalidateNotAvailable(artifact);
+            }
+            results.put(artifact, null);
+            requestedArtifacts.add(artifact);
+            requests.add(request);
+        }
+        if (requests.isEmpty()) {
+            return results;
+        }
+
+        // do resolve
+        List<ArtifactResult> artifactResults;
+        try {
+            artifactResults = aetherSystem.resolveArtifacts(createSession(forceResolve), requests);
+        } catch (ArtifactResolutionException ex) {
+            artifactResults = ex.getResults();
+        }
+
+        int size = requestedArtifacts.size();
+        for (int i = 0; i < size; i++) {
+            EclipathArtifact artifact = requestedArtifacts.get(i);
+            ArtifactResult result = artifactResults.get(i);
+            results.put(artifact, result);
+            if (resolutionCache != null && (result.isResolved() || isMissing(result))) {
+                resolutionCache.put(artifact, remoteProjectRepositories, result);
+            }
+            if (result.isResolved()) {
+                setResolved(artifact, result);
+                count(Counter.ARTIFACTS_RESOLVED);
+                Logger.info("  resolved: " + artifact.toString());
+            } else {
+                count(Counter.ARTIFACTS_FAILED);
+                if (isAttachment(artifact)) {
+                    if (isMissing(result)) {
+                        markNotAvailable(artifact);
+                    }
+                    Logger.warn("artifact resolution failed. : " + artifact.toString());
+                }
+            }
+        }
+        return results;
+    }
+
+    private void count(Counter counter) {
+        if (buildReport != null) {
+            buildReport.increment(counter);
+        }
+    }
+
+    private void setResolved(EclipathArtifact artifact, ArtifactResult result) {
+        Artifact mavenArtifact = artifact.getArtifact();
+        mavenArtifact.setFile(result.getArtifact().getFile());
+        mavenArtifact.setResolved(true);
+    }
+
+    /**
+     * Sets the location of the specified artifact in the local repository
+     * without accessing remote repositories. If the file already exists, the
+     * artifact is marked as resolved.
+     *
+     * @param artifact
+     *        artifact to locate
+     * @return {@code true} if the file exists in the local repository
+     */
+    public boolean locate(EclipathArtifact artifact) {
+        String path = repositorySession.getLocalRepositoryManager().getPathForLocalArtifact(
+                RepositoryUtils.toArtifact(artifact.getArtifact()));
+        File file = new File(repositorySession.getLocalRepository().getBasedir(), path);
+        Artifact mavenArtifact = artifact.getArtifact();
+        mavenArtifact.setFile(file);
+        mavenArtifact.setResolved(file.exists());
+        return file.exists();
+    }
+
+    /**
+     * Creates {@link ArtifactResolutionRuntimeException} which describes the
+     * failure of the specified result.
+     *
+     * @param artifact
+     *        failed artifact
+     * @param result
+     *        result of {@link #resolveAll(Collection, boolean)}
+     * @return exception
+     */
+    public ArtifactResolutionRuntimeException createResolutionException(EclipathArtifact artifact,
+            ArtifactResult result) {
+        ArtifactResolutionResult resolutionResult = new ArtifactResolutionResult();
+        if (isMissing(result)) {
+            resolutionResult.addMissingArtifact(artifact.getArtifact());
+        }
+        Exception cause = result.getExceptions().isEmpty() ? null : result.getExceptions().get(0);
+        return new ArtifactResolutionRuntimeException("artifact resolution failed. : " + artifact.toString(),
+                resolutionResult, cause);
+    }
+
+    public boolean isMissing(ArtifactResult result) {
+        if (result.getExceptions().isEmpty()) {
+            return false;
+        }
+        for (Exception ex : result.getExceptions()) {
+            if (!(ex instanceof ArtifactNotFoundException)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected RepositorySystemSession createSession(boolean forceResolve) {
+        if (!forceResolve && repositoryListener == null && transferListener == null) {
+            return repositorySession;
+        }
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession(repositorySession);
+        if (forceResolve) {
+            session.setUpdatePolicy(RepositoryPolicy.UPDATE_POLICY_ALWAYS);
+        }
+        if (repositoryListener != null) {
+            session.setRepositoryListener(new ChainedRepositoryListener(repositorySession.getRepositoryListener(),
+                    repositoryListener));
+        }
+        if (transferListener != null) {
+            session.setTransferListener(new ChainedTransferListener(repositorySession.getTransferListener(),
+                    transferListener));
+        }
+        return session;
+    }
+
+    /**
+     * Returns the id of the repository which the specified artifact was
+     * downloaded from, according to the local repository.
+     *
+     * @param artifact
+     *        artifact
+     * @return repository id, {@link ResolutionRecorder#LOCAL_REPOSITORY_ID} if
+     *         the origin is unknown, or {@code null} if the artifact is not in
+     *         the local repository
+     */
+    public String findRepositoryId(EclipathArtifact artifact) {
+        LocalArtifactRequest request = new LocalArtifactRequest(RepositoryUtils.toArtifact(artifact.getArtifact()),
+                remoteProjectRepositories, null);
+        LocalArtifactResult result = repositorySession.getLocalRepositoryManager().find(repositorySession,
+                request);
+        if (result.getFile() == null) {
+            return null;
+        }
+        if (result.getRepository() != null) {
+            return result.getRepository().getId();
+        }
+        return ResolutionRecorder.LOCAL_REPOSITORY_ID;
+    }
+
+    protected boolean isAttachment(EclipathArtifact artifact) {
+        String classifier = artifact.classifier();
+        return classifier != null
+                && (classifier.endsWith(SOURCES_CLASSIFIER) || classifier.endsWith(JAVADOC_CLASSIFIER));
+    }
+
+    private boolean isNotAvailable(EclipathArtifact artifact) {
+        return negativeResolutionCache != null && negativeResolutionCache.isNotAvailable(artifact);
+    }
+
+    private void markNotAvailable(EclipathArtifact artifact) {
+        if (negativeResolutionCache != null) {
+            negativeResolutionCache.put(artifact);
+        }
+    }
+
+    private void invalidateNotAvailable(EclipathArtifact artifact) {
+        if (negativeResolutionCache != null) {
+            negativeResolutionCache.invalidate(artifact);
+        }
+    }
+
     public boolean isCompileScope(Artifact artifact) {
         return Scope.COMPILE.equalsString(artifact.getScope());
     }
@@ -170,4 +412,50 @@ public class ArtifactHelper {
     public void setWorkspaceConfigurator(WorkspaceConfigurator workspaceConfigurator) {
         this.workspaceConfigurator = workspaceConfigurator;
     }
+
+    public void setAetherSystem(org.eclipse.aether.RepositorySystem aetherSystem) {
+        this.aetherSystem = aetherSystem;
+    }
+
+    public void setRepositorySession(RepositorySystemSession repositorySession) {
+        this.repositorySession = repositorySession;
+    }
+
+    public void setNegativeResolutionCache(NegativeResolutionCache negativeResolutionCache) {
+        this.negativeResolutionCache = negativeResolutionCache;
+    }
+
+    public void setResolutionCache(ResolutionCache resolutionCache) {
+        this.resolutionCache = resolutionCache;
+    }
+
+    public void setRemoteProjectRepositories(List<RemoteRepository> remoteProjectRepositories) {
+        this.remoteProjectRepositories = remoteProjectRepositories;
+    }
+
+    public void setBuildReport(BuildReport buildReport) {
+        this.buildReport = buildReport;
+    }
+
+    /**
+     * Sets the listener which is notified of artifact resolutions in addition
+     * to the listener of the session.
+     *
+     * @param repositoryListener
+     *        {@link RepositoryListener}, or {@code null}
+     */
+    public void setRepositoryListener(RepositoryListener repositoryListener) {
+        this.repositoryListener = repositoryListener;
+    }
+
+    /**
+     * Sets the listener which is notified of transfers in addition to the
+     * listener of the session.
+     *
+     * @param transferListener
+     *        {@link TransferListener}, or {@code null}
+     */
+    public void setTransferListener(TransferListener transferListener) {
+        this.transferListener = transferListener;
+    }
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Objects shared by all modules of a build.<br />
+ * A context is bound to the {@link MavenExecutionRequest} of a session, and is
+ * discarded with the request. The request is used as the key because Maven
+ * clones the session for each project, but the clones share the request.
+ * When the session ends, the context is closed by {@link SessionEndListener}.
+ *
+ * @author y-komori
+ */
+public class BuildContext {
+    private static final Map<MavenExecutionRequest, BuildContext> contexts = new WeakHashMap<MavenExecutionRequest, BuildContext>();
+
+    private final ResolutionCache resolutionCache = new ResolutionCache();
+
+    private final Map<File, WorkspaceConfigurator> workspaceConfigurators = new HashMap<File, WorkspaceConfigurator>();
+
+    private final RefreshQueue refreshQueue = new RefreshQueue();
+
+    /**
+     * Negative resolution caches for each local repository.
+     */
+    private final Map<File, NegativeResolutionCache> negativeResolutionCaches = new HashMap<File, NegativeResolutionCache>();
+
+    /**
+     * Library manifests for each local repository.
+     */
+    private final Map<File, LibraryManifests> libraryManifests = new HashMap<File, LibraryManifests>();
+
+    /**
+     * Locations for each pom.xml.
+     */
+    private final Map<File, ProjectLocations> projectLocations = new HashMap<File, ProjectLocations>();
+
+    /**
+     * Returns the context of the specified session. If {@code session} is
+     * {@code null}, returns a new context which is not shared.
+     *
+     * @param session
+     *        current session
+     * @return {@link BuildContext} object
+     */
+    public static BuildContext get(MavenSession session) {
+        if (session == null || session.getRequest() == null) {
+            return new BuildContext();
+        }
+        MavenExecutionRequest request = session.getRequest();
+        synchronized (contexts) {
+            BuildContext context = contexts.get(request);
+            if (context == null) {
+                context = new BuildContext();
+                contexts.put(request, context);
+                // Maven reads the listener from the request at every event, so
+                // that a listener installed during the build receives the
+                // session end. If another plugin replaces the listener without
+                // forwarding events, pending refresh requests are not sent.
+                request.setExecutionListener(new SessionEndListener(request.getExecutionListener(), context));
+            }
+            return context;
+        }
+    }
+
+    /**
+     * Finishes this build. Pending refresh requests are sent, and the context
+     * is discarded, so that the next build in the same JVM starts with a new
+     * context.
+     */
+    public void close() {
+        synchronized (contexts) {
+            contexts.values().remove(this);
+        }
+        refreshQueue.finish();
+    }
+
+    /**
+     * Returns the resolution cache of this build.
+     *
+     * @return {@link ResolutionCache} object
+     */
+    public ResolutionCache getResolutionCache() {
+        return resolutionCache;
+    }
+
+    /**
+     * Returns the negative resolution cache of the specified local repository.
+     * The index file is loaded only once per build.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     * @param ttlMillis
+     *        time to live of new entries in milliseconds
+     * @return {@link NegativeResolutionCache} object
+     */
+    public synchronized NegativeResolutionCache getNegativeResolutionCache(File localRepositoryDir, long ttlMillis) {
+        File key = localRepositoryDir.getAbsoluteFile();
+        NegativeResolutionCache cache = negativeResolutionCaches.get(key);
+        if (cache == null) {
+            cache = new NegativeResolutionCache(key, ttlMillis);
+            negativeResolutionCaches.put(key, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the library manifests kept in the specified local repository.
+     * Manifest files are loaded only once per build.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     * @return {@link LibraryManifests} object
+     */
+    public synchronized LibraryManifests getLibraryManifests(File localRepositoryDir) {
+        File key = localRepositoryDir.getAbsoluteFile();
+        LibraryManifests manifests = libraryManifests.get(key);
+        if (manifests == null) {
+            manifests = new LibraryManifests(key);
+            libraryManifests.put(key, manifests);
+        }
+        return manifests;
+    }
+
+    /**
+     * Returns the queue of refresh requests of this build.
+     *
+     * @return {@link RefreshQueue} object
+     */
+    public RefreshQueue getRefreshQueue() {
+        return refreshQueue;
+    }
+
+    /**
+     * Returns the locations of the specified project. The locations are looked
+     * up only once per build.
+     *
+     * @param project
+     *        Maven project
+     * @return {@link ProjectLocations} object
+     */
+    public synchronized ProjectLocations getProjectLocations(MavenProject project) {
+        File key = project.getFile().getAbsoluteFile();
+        ProjectLocations locations = projectLocations.get(key);
+        if (locations == null) {
+            locations = ProjectLocations.resolve(project);
+            projectLocations.put(key, locations);
+        }
+        return locations;
+    }
+
+    /**
+     * Returns the {@link WorkspaceConfigurator} of the specified workspace.
+     * The workspace configuration is loaded only once per build.
+     *
+     * @param workspaceDir
+     *        workspace directory, may be {@code null}
+     * @return {@link WorkspaceConfigurator} object
+     */
+    public synchronized WorkspaceConfigurator getWorkspaceConfigurator(File workspaceDir) {
+        File key = workspaceDir != null ? workspaceDir.getAbsoluteFile() : null;
+        WorkspaceConfigurator configurator = workspaceConfigurators.get(key);
+        if (configurator == null) {
+            configurator = new WorkspaceConfigurator(key);
+            configurator.loadConfiguration();
+            workspaceConfigurators.put(key, configurator);
+        }
+        return configurator;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
+
+/**
+ * Lists jar files in library directories.<br />
+ * Each directory is read by a {@link DirectoryStream} in its own thread, and
+ * the results are merged into a single sorted list of absolute paths.
+ * Directories which do not exist are skipped.
+ *
+ * @author y-komori
+ */
+public class LibraryDirectoryScanner {
+    protected static final String GLOB = "*.jar";
+
+    protected static final int MAX_THREADS = 4;
+
+    /**
+     * Lists jar files in the specified directories.
+     *
+     * @param dirs
+     *        directories to scan
+     * @return sorted absolute paths of the jar files
+     */
+    public List<String> scan(List<File> dirs) {
+        List<String> result = new ArrayList<String>();
+        int threads = Math.min(dirs.size(), MAX_THREADS);
+        if (threads <= 1) {
+            for (File dir : dirs) {
+                result.addAll(scanDirectory(dir));
+            }
+        } else {
+            List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>(dirs.size());
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("scan"));
+            try {
+                for (File dir : dirs) {
+                    futures.add(executor.submit(new ScanTask(dir)));
+                }
+                for (Future<List<String>> future : futures) {
+                    result.addAll(getResult(future));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    protected List<String> scanDirectory(File dir) {
+        List<String> result = new ArrayList<String>();
+        if (!dir.isDirectory()) {
+            return result;
+        }
+
+        DirectoryStream<Path> stream = null;
+        try {
+            stream = Files.newDirectoryStream(dir.toPath(), GLOB);
+            for (Path path : stream) {
+                result.add(path.toAbsolutePath().toString());
+            }
+        } catch (IOException ex) {
+            throw new PluginRuntimeException("Failed to list directory : " + dir.getAbsolutePath(), ex);
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+        return result;
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Directory scan is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PluginRuntimeException(cause);
+        }
+    }
+
+    /**
+     * Task which lists a directory.
+     */
+    private class ScanTask implements Callable<List<String>> {
+        private final File dir;
+
+        ScanTask(File dir) {
+            this.dir = dir;
+        }
+
+        @Override
+        public List<String> call() {
+            return scanDirectory(dir);
+        }
+    }
+}
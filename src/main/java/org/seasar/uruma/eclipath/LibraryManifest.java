@@ -0,0 +1,261 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+
+/**
+ * Manifest of files materialized into a library directory.<br />
+ * The manifest file is kept outside of the library directory, and its first
+ * line records the path of the directory. For each file, the manifest records
+ * its size, the time stamps of the source and the destination, and a CRC32
+ * checksum of the contents. Up-to-date checks compare sizes and time stamps
+ * first, and compute checksums only when they disagree.
+ *
+ * @author y-komori
+ */
+public class LibraryManifest {
+    private static final String HEADER_PREFIX = "# ";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String SEPARATOR = "\t";
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File manifestFile;
+
+    private final File libDir;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    private final Map<String, Entry> sourceChecksums = new ConcurrentHashMap<String, Entry>();
+
+    private volatile boolean changed;
+
+    /**
+     * Constructs new instance. Use {@link LibraryManifests#getManifest(File)}
+     * to get the manifest of a library directory.
+     *
+     * @param manifestFile
+     *        manifest file
+     * @param libDir
+     *        library directory
+     */
+    LibraryManifest(File manifestFile, File libDir) {
+        AssertionUtil.assertNotNull("manifestFile", manifestFile);
+        AssertionUtil.assertNotNull("libDir", libDir);
+        this.manifestFile = manifestFile;
+        this.libDir = libDir;
+    }
+
+    /**
+     * Checks whether {@code destFile} has the same contents as
+     * {@code srcFile}.
+     *
+     * @param srcFile
+     *        source file in the local repository
+     * @param destFile
+     *        materialized file
+     * @return {@code true} if {@code destFile} is up to date
+     * @throws IOException
+     *         if an I/O error occurs while computing checksums
+     */
+    public boolean isUpToDate(File srcFile, File destFile) throws IOException {
+        if (!destFile.exists()) {
+            return false;
+        }
+        long size = srcFile.length();
+        if (size != destFile.length()) {
+            return false;
+        }
+
+        String name = destFile.getName();
+        Entry entry = entries.get(name);
+        boolean srcUnchanged = entry != null && entry.size == size
+                && entry.srcLastModified == srcFile.lastModified();
+        boolean destUnchanged = entry != null && entry.size == size
+                && entry.destLastModified == destFile.lastModified();
+        if (srcUnchanged && destUnchanged) {
+            return true;
+        }
+
+        long srcChecksum = srcUnchanged ? entry.checksum : getSourceChecksum(srcFile);
+        long destChecksum = destUnchanged ? entry.checksum : checksum(destFile);
+        if (srcChecksum != destChecksum) {
+            return false;
+        }
+
+        entries.put(name, new Entry(size, srcFile.lastModified(), destFile.lastModified(), srcChecksum));
+        changed = true;
+        return true;
+    }
+
+    /**
+     * Records that {@code destFile} is materialized from {@code srcFile}.
+     *
+     * @param srcFile
+     *        source file in the local repository
+     * @param destFile
+     *        materialized file
+     * @throws IOException
+     *         if an I/O error occurs while computing the checksum
+     */
+    public void update(File srcFile, File destFile) throws IOException {
+        long checksum = getSourceChecksum(srcFile);
+        entries.put(destFile.getName(),
+                new Entry(srcFile.length(), srcFile.lastModified(), destFile.lastModified(), checksum));
+        changed = true;
+    }
+
+    /**
+     * Writes the manifest file if entries are changed.
+     */
+    public synchronized void store() {
+        if (!changed) {
+            return;
+        }
+
+        List<String> lines = new ArrayList<String>(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            lines.add(e.getKey() + SEPARATOR + entry.size + SEPARATOR + entry.srcLastModified + SEPARATOR
+                    + entry.destLastModified + SEPARATOR + Long.toHexString(entry.checksum));
+        }
+        Collections.sort(lines);
+
+        StringBuilder buf = new StringBuilder(lines.size() * 128);
+        buf.append(HEADER_PREFIX).append(libDir.getAbsolutePath()).append(LINE_SEPARATOR);
+        for (String line : lines) {
+            buf.append(line).append(LINE_SEPARATOR);
+        }
+        try {
+            AtomicFileUtil.writeIfChanged(manifestFile, buf.toString().getBytes(ENCODING));
+            changed = false;
+        } catch (IOException ex) {
+            Logger.warn("Failed to store library manifest. : " + manifestFile.getAbsolutePath(), ex);
+        }
+    }
+
+    void load() {
+        if (!manifestFile.exists()) {
+            return;
+        }
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifestFile), ENCODING));
+            String line = reader.readLine();
+            if (line == null || !line.equals(HEADER_PREFIX + libDir.getAbsolutePath())) {
+                Logger.debug("Ignored library manifest of another directory. : " + manifestFile.getAbsolutePath());
+                return;
+            }
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR);
+                if (fields.length != 5) {
+                    continue;
+                }
+                try {
+                    entries.put(fields[0], new Entry(Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), Long.parseLong(fields[4], 16)));
+                } catch (NumberFormatException ignore) {
+                    // broken line is ignored.
+                }
+            }
+        } catch (IOException ex) {
+            Logger.warn("Failed to load library manifest. : " + manifestFile.getAbsolutePath(), ex);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private long getSourceChecksum(File srcFile) throws IOException {
+        String key = srcFile.getAbsolutePath();
+        Entry cached = sourceChecksums.get(key);
+        if (cached != null && cached.size == srcFile.length() && cached.srcLastModified == srcFile.lastModified()) {
+            return cached.checksum;
+        }
+        long checksum = checksum(srcFile);
+        sourceChecksums.put(key, new Entry(srcFile.length(), srcFile.lastModified(), 0, checksum));
+        return checksum;
+    }
+
+    /**
+     * Computes the CRC32 checksum of the specified file.
+     *
+     * @param file
+     *        file
+     * @return checksum
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        FileInputStream is = null;
+        try {
+            is = new FileInputStream(file);
+            FileChannel channel = is.getChannel();
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] array = buf.array();
+            int read;
+            while ((read = channel.read(buf)) != -1) {
+                crc.update(array, 0, read);
+                buf.clear();
+            }
+            return crc.getValue();
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Manifest entry.
+     */
+    private static class Entry {
+        final long size;
+
+        final long srcLastModified;
+
+        final long destLastModified;
+
+        final long checksum;
+
+        Entry(long size, long srcLastModified, long destLastModified, long checksum) {
+            this.size = size;
+            this.srcLastModified = srcLastModified;
+            this.destLastModified = destLastModified;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.util.AssertionUtil;
+
+/**
+ * Manifests of library directories used by a build.<br />
+ * Manifest files are not written into library directories, but into the
+ * {@code .eclipath/manifests} directory of the local repository. Each file is
+ * named after the SHA-1 hash of the absolute path of its library directory.
+ *
+ * @author y-komori
+ */
+public class LibraryManifests {
+    public static final String MANIFEST_DIR = "manifests";
+
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File manifestDir;
+
+    private final Map<File, LibraryManifest> manifests = new HashMap<File, LibraryManifest>();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     */
+    public LibraryManifests(File localRepositoryDir) {
+        AssertionUtil.assertNotNull("localRepositoryDir", localRepositoryDir);
+        this.manifestDir = new File(new File(localRepositoryDir, NegativeResolutionCache.INDEX_DIR), MANIFEST_DIR)
+                .getAbsoluteFile();
+    }
+
+    /**
+     * Returns the manifest of the specified library directory. The manifest
+     * file is loaded at the first call.
+     *
+     * @param libDir
+     *        library directory
+     * @return {@link LibraryManifest} object
+     */
+    public synchronized LibraryManifest getManifest(File libDir) {
+        AssertionUtil.assertNotNull("libDir", libDir);
+        File key = libDir.getAbsoluteFile();
+        LibraryManifest manifest = manifests.get(key);
+        if (manifest == null) {
+            File manifestFile = new File(manifestDir, hash(key.getPath()) + MANIFEST_SUFFIX);
+            manifest = new LibraryManifest(manifestFile, key);
+            manifest.load();
+            manifests.put(key, manifest);
+        }
+        return manifest;
+    }
+
+    /**
+     * Stores all changed manifests.
+     */
+    public synchronized void storeAll() {
+        for (LibraryManifest manifest : manifests.values()) {
+            manifest.store();
+        }
+    }
+
+    private static String hash(String path) {
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-1").digest(path.getBytes("UTF-8"));
+            char[] chars = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0f];
+                chars[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+            }
+            return new String(chars);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new PluginRuntimeException(ex);
+        } catch (UnsupportedEncodingException ex) {
+            throw new PluginRuntimeException(ex);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.FileLockUtil;
+
+/**
+ * Persistent cache of artifacts which could not be found in any repository.<br />
+ * The cache is stored as a compact binary index in the local repository. Each
+ * entry consists of a 64 bit hash of the artifact coordinates and its
+ * expiration time. The index is loaded once per build through
+ * {@link BuildContext}. When the index is stored, the file is read again
+ * under a file lock and merged with the changes of this build, so that builds
+ * sharing the local repository don't lose each other's entries.
+ *
+ * @author y-komori
+ */
+public class NegativeResolutionCache {
+    public static final String INDEX_DIR = ".eclipath";
+
+    public static final String INDEX_FILENAME = "negative-resolution.idx";
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final int MAGIC = 0x45434E43;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int HEADER_SIZE = 12;
+
+    private static final int ENTRY_SIZE = 16;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * File locks are held by the whole JVM, so threads are serialized by this
+     * monitor.
+     */
+    private static final Object monitor = new Object();
+
+    private final File indexFile;
+
+    private final File lockFile;
+
+    private final Map<Long, Long> entries = new ConcurrentHashMap<Long, Long>();
+
+    /**
+     * Entries added by this build, which are merged into the index file.
+     */
+    private final Map<Long, Long> added = new HashMap<Long, Long>();
+
+    /**
+     * Entries invalidated by this build, which are removed from the index
+     * file.
+     */
+    private final Set<Long> removed = new HashSet<Long>();
+
+    private final long ttlMillis;
+
+    /**
+     * Constructs new instance, and loads the index file of the specified local
+     * repository.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     * @param ttlMillis
+     *        time to live of new entries in milliseconds
+     */
+    public NegativeResolutionCache(File localRepositoryDir, long ttlMillis) {
+        AssertionUtil.assertNotNull("localRepositoryDir", localRepositoryDir);
+        File dir = new File(localRepositoryDir, INDEX_DIR).getAbsoluteFile();
+        this.indexFile = new File(dir, INDEX_FILENAME);
+        this.lockFile = new File(dir, INDEX_FILENAME + LOCK_SUFFIX);
+        this.ttlMillis = ttlMillis;
+        entries.putAll(read());
+        Logger.debug("Negative resolution cache loaded. : " + entries.size() + " entries");
+    }
+
+    /**
+     * Returns {@code true} if the specified artifact is known as not available
+     * and the entry is not expired.
+     *
+     * @param artifact
+     *        artifact to check
+     * @return {@code true} if the artifact is not available
+     */
+    public boolean isNotAvailable(EclipathArtifact artifact) {
+        Long expiration = entries.get(createKey(artifact));
+        return expiration != null && expiration.longValue() > System.currentTimeMillis();
+    }
+
+    /**
+     * Records the specified artifact as not available.
+     *
+     * @param artifact
+     *        artifact which could not be found
+     */
+    public void put(EclipathArtifact artifact) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        Long key = createKey(artifact);
+        Long expiration = System.currentTimeMillis() + ttlMillis;
+        synchronized (this) {
+            entries.put(key, expiration);
+            added.put(key, expiration);
+            removed.remove(key);
+        }
+    }
+
+    /**
+     * Removes the entry of the specified artifact.
+     *
+     * @param artifact
+     *        artifact to invalidate
+     */
+    public void invalidate(EclipathArtifact artifact) {
+        Long key = createKey(artifact);
+        synchronized (this) {
+            if (entries.remove(key) != null) {
+                added.remove(key);
+                removed.add(key);
+            }
+        }
+    }
+
+    /**
+     * Merges the changes of this build into the index file. Expired entries
+     * are dropped. Entries added by other builds are also loaded into this
+     * cache.
+     */
+    public void store() {
+        Map<Long, Long> addedSnapshot;
+        Set<Long> removedSnapshot;
+        synchronized (this) {
+            if (added.isEmpty() && removed.isEmpty()) {
+                return;
+            }
+            addedSnapshot = new HashMap<Long, Long>(added);
+            removedSnapshot = new HashSet<Long>(removed);
+        }
+
+        synchronized (monitor) {
+            FileLock lock = null;
+            try {
+                lock = FileLockUtil.lock(lockFile);
+                Map<Long, Long> merged = read();
+                merged.keySet().removeAll(removedSnapshot);
+                for (Entry<Long, Long> entry : addedSnapshot.entrySet()) {
+                    Long current = merged.get(entry.getKey());
+                    if (current == null || current.longValue() < entry.getValue().longValue()) {
+                        merged.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                long now = System.currentTimeMillis();
+                for (Iterator<Entry<Long, Long>> it = merged.entrySet().iterator(); it.hasNext();) {
+                    if (it.next().getValue().longValue() <= now) {
+                        it.remove();
+                    }
+                }
+                write(merged);
+
+                synchronized (this) {
+                    for (Entry<Long, Long> entry : addedSnapshot.entrySet()) {
+                        if (entry.getValue().equals(added.get(entry.getKey()))) {
+                            added.remove(entry.getKey());
+                        }
+                    }
+                    removed.removeAll(removedSnapshot);
+                    // Changes made while storing are kept, and stored next time.
+                    for (Entry<Long, Long> entry : merged.entrySet()) {
+                        if (!removed.contains(entry.getKey()) && !added.containsKey(entry.getKey())) {
+                            entries.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+                Logger.debug("Negative resolution cache stored. : " + indexFile.getAbsolutePath());
+            } catch (IOException ex) {
+                Logger.warn("Failed to store negative resolution cache. : " + indexFile.getAbsolutePath(), ex);
+            } finally {
+                FileLockUtil.release(lock);
+            }
+        }
+    }
+
+    private void write(Map<Long, Long> index) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + index.size() * ENTRY_SIZE);
+        buf.putInt(MAGIC);
+        buf.putInt(FORMAT_VERSION);
+        buf.putInt(index.size());
+        for (Entry<Long, Long> entry : index.entrySet()) {
+            buf.putLong(entry.getKey().longValue());
+            buf.putLong(entry.getValue().longValue());
+        }
+        AtomicFileUtil.writeIfChanged(indexFile, buf.array());
+    }
+
+    /**
+     * Reads unexpired entries of the index file.
+     */
+    private Map<Long, Long> read() {
+        Map<Long, Long> result = new HashMap<Long, Long>();
+        if (!indexFile.exists() || indexFile.length() < HEADER_SIZE) {
+            return result;
+        }
+
+        DataInputStream is = null;
+        try {
+            is = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            if (is.readInt() != MAGIC || is.readInt() != FORMAT_VERSION) {
+                Logger.warn("Ignored unknown negative resolution cache. : " + indexFile.getAbsolutePath());
+                return result;
+            }
+            int count = is.readInt();
+            if (count < 0 || HEADER_SIZE + (long) count * ENTRY_SIZE > indexFile.length()) {
+                Logger.warn("Ignored broken negative resolution cache. : " + indexFile.getAbsolutePath());
+                return result;
+            }
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                long key = is.readLong();
+                long expiration = is.readLong();
+                if (expiration > now) {
+                    result.put(key, expiration);
+                }
+            }
+        } catch (EOFException ex) {
+            Logger.warn("Ignored broken negative resolution cache. : " + indexFile.getAbsolutePath());
+            result.clear();
+        } catch (IOException ex) {
+            Logger.warn("Failed to load negative resolution cache. : " + indexFile.getAbsolutePath(), ex);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the 64 bit FNV-1a hash of the artifact coordinates.
+     */
+    private Long createKey(EclipathArtifact artifact) {
+        StringBuilder buf = new StringBuilder(128);
+        buf.append(artifact.groupId()).append(':');
+        buf.append(artifact.artifactId()).append(':');
+        buf.append(artifact.version()).append(':');
+        buf.append(artifact.classifier() != null ? artifact.classifier() : "").append(':');
+        buf.append(artifact.type());
+
+        long hash = FNV_OFFSET_BASIS;
+        int length = buf.length();
+        for (int i = 0; i < length; i++) {
+            hash ^= buf.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return Long.valueOf(hash);
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.seasar.uruma.eclipath.exception.ArtifactResolutionRuntimeException;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.model.Dependency;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.report.BuildReport;
+import org.seasar.uruma.eclipath.report.Phase;
+import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
+
+/**
+ * Resolves library, source and javadoc artifacts of dependencies concurrently.
+ * Artifacts are divided into batches, and each batch is submitted to the
+ * repository system at once with a fixed size thread pool. Library, source
+ * and javadoc artifacts are never mixed in a batch, so that their resolution
+ * times are reported separately.
+ *
+ * @author y-komori
+ */
+public class ParallelArtifactResolver {
+    private final ArtifactHelper artifactHelper;
+
+    private final int threads;
+
+    private BuildReport buildReport;
+
+    private ExecutorService executor;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param artifactHelper
+     *        {@link ArtifactHelper} to resolve artifacts
+     * @param threads
+     *        number of resolver threads
+     */
+    public ParallelArtifactResolver(ArtifactHelper artifactHelper, int threads) {
+        AssertionUtil.assertNotNull("artifactHelper", artifactHelper);
+        this.artifactHelper = artifactHelper;
+        this.threads = threads > 0 ? threads : 1;
+    }
+
+    public void setBuildReport(BuildReport buildReport) {
+        this.buildReport = buildReport;
+    }
+
+    /**
+     * Sets the thread pool shared with other resolvers. The pool is not shut
+     * down by this object. If not set, a pool is created for each resolution.
+     *
+     * @param executor
+     *        shared thread pool
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Resolves artifacts of the specified dependencies. Source and javadoc
+     * artifacts are requested and attached to the dependency only when its
+     * library artifact is resolved successfully. Resolution errors of library
+     * artifacts are logged in the order of {@code dependencies}.<br />
+     * Attachments of libraries which are already resolved are requested
+     * together with the unresolved libraries. Attachments of the other
+     * libraries are requested after the libraries are resolved.
+     *
+     * @param dependencies
+     *        dependencies to resolve
+     * @param resolveSources
+     *        if {@code true}, resolves source artifacts
+     * @param resolveJavadocs
+     *        if {@code true}, resolves javadoc artifacts
+     * @param forceResolve
+     *        if {@code true}, forces resolution
+     */
+    public void resolve(List<Dependency> dependencies, boolean resolveSources, boolean resolveJavadocs,
+            boolean forceResolve) {
+        int size = dependencies.size();
+        EclipathArtifact[] sourceArtifacts = new EclipathArtifact[size];
+        EclipathArtifact[] javadocArtifacts = new EclipathArtifact[size];
+        List<Integer> unresolved = new ArrayList<Integer>(size);
+
+        Map<Phase, List<EclipathArtifact>> targets = createTargets(size);
+        for (int i = 0; i < size; i++) {
+            EclipathArtifact artifact = dependencies.get(i).getLibraryArtifact();
+            if (artifact.isResolved()) {
+                addAttachments(targets, i, artifact, resolveSources, resolveJavadocs, sourceArtifacts,
+                        javadocArtifacts);
+            } else {
+                targets.get(Phase.RESOLVE_LIBRARIES).add(artifact);
+                unresolved.add(i);
+            }
+        }
+        Map<EclipathArtifact, ArtifactResult> results = resolveInBatches(targets, forceResolve);
+
+        targets = createTargets(unresolved.size());
+        for (int i : unresolved) {
+            EclipathArtifact artifact = dependencies.get(i).getLibraryArtifact();
+            if (artifact.isResolved()) {
+                addAttachments(targets, i, artifact, resolveSources, resolveJavadocs, sourceArtifacts,
+                        javadocArtifacts);
+            }
+        }
+        results.putAll(resolveInBatches(targets, forceResolve));
+
+        for (int i = 0; i < size; i++) {
+            Dependency dependency = dependencies.get(i);
+            EclipathArtifact artifact = dependency.getLibraryArtifact();
+            if (!artifact.isResolved()) {
+                ArtifactResolutionRuntimeException ex = artifactHelper.createResolutionException(artifact,
+                        results.get(artifact));
+                Logger.error(ex.getLocalizedMessage(), ex.getCause());
+                continue;
+            }
+
+            if (sourceArtifacts[i] != null) {
+                dependency.setSourceArtifact(sourceArtifacts[i]);
+            }
+            if (javadocArtifacts[i] != null) {
+                dependency.setJavadocArtifact(javadocArtifacts[i]);
+            }
+        }
+    }
+
+    private Map<Phase, List<EclipathArtifact>> createTargets(int size) {
+        Map<Phase, List<EclipathArtifact>> targets = new LinkedHashMap<Phase, List<EclipathArtifact>>();
+        targets.put(Phase.RESOLVE_LIBRARIES, new ArrayList<EclipathArtifact>(size));
+        targets.put(Phase.RESOLVE_SOURCES, new ArrayList<EclipathArtifact>(size));
+        targets.put(Phase.RESOLVE_JAVADOCS, new ArrayList<EclipathArtifact>(size));
+        return targets;
+    }
+
+    private void addAttachments(Map<Phase, List<EclipathArtifact>> targets, int index, EclipathArtifact artifact,
+            boolean resolveSources, boolean resolveJavadocs, EclipathArtifact[] sourceArtifacts,
+            EclipathArtifact[] javadocArtifacts) {
+        if (resolveSources) {
+            sourceArtifacts[index] = artifactHelper.createSourceArtifact(artifact);
+            targets.get(Phase.RESOLVE_SOURCES).add(sourceArtifacts[index]);
+        }
+        if (resolveJavadocs) {
+            javadocArtifacts[index] = artifactHelper.createJavadocArtifact(artifact);
+            targets.get(Phase.RESOLVE_JAVADOCS).add(javadocArtifacts[index]);
+        }
+    }
+
+    private Map<EclipathArtifact, ArtifactResult> resolveInBatches(Map<Phase, List<EclipathArtifact>> targets,
+            boolean forceResolve) {
+        Map<EclipathArtifact, ArtifactResult> results = new HashMap<EclipathArtifact, ArtifactResult>();
+        int total = 0;
+        for (List<EclipathArtifact> kindTargets : targets.values()) {
+            total += kindTargets.size();
+        }
+        if (total == 0) {
+            return results;
+        }
+
+        int batchSize = (total + threads - 1) / threads;
+        List<Future<Map<EclipathArtifact, ArtifactResult>>> futures = new ArrayList<Future<Map<EclipathArtifact, ArtifactResult>>>();
+        boolean shared = this.executor != null;
+        ExecutorService executor = shared ? this.executor : Executors.newFixedThreadPool(threads,
+                new NamedThreadFactory("resolver"));
+        try {
+            for (Map.Entry<Phase, List<EclipathArtifact>> entry : targets.entrySet()) {
+                List<EclipathArtifact> kindTargets = entry.getValue();
+                for (int from = 0; from < kindTargets.size(); from += batchSize) {
+                    int to = Math.min(from + batchSize, kindTargets.size());
+                    List<EclipathArtifact> batch = kindTargets.subList(from, to);
+                    futures.add(executor.submit(new ResolveTask(batch, entry.getKey(), forceResolve)));
+                }
+            }
+            for (Future<Map<EclipathArtifact, ArtifactResult>> future : futures) {
+                results.putAll(getResult(future));
+            }
+        } finally {
+            if (shared) {
+                for (Future<Map<EclipathArtifact, ArtifactResult>> future : futures) {
+                    future.cancel(true);
+                }
+            } else {
+                executor.shutdownNow();
+            }
+        }
+        return results;
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Artifact resolution is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PluginRuntimeException(cause);
+        }
+    }
+
+    /**
+     * Task which resolves a batch of artifacts.
+     */
+    private class ResolveTask implements Callable<Map<EclipathArtifact, ArtifactResult>> {
+        private final List<EclipathArtifact> artifacts;
+
+        private final Phase phase;
+
+        private final boolean forceResolve;
+
+        ResolveTask(List<EclipathArtifact> artifacts, Phase phase, boolean forceResolve) {
+            this.artifacts = artifacts;
+            this.phase = phase;
+            this.forceResolve = forceResolve;
+        }
+
+        @Override
+        public Map<EclipathArtifact, ArtifactResult> call() {
+            if (buildReport == null) {
+                return artifactHelper.resolveAll(artifacts, forceResolve);
+            }
+            long start = buildReport.start();
+            try {
+                return artifactHelper.resolveAll(artifacts, forceResolve);
+            } finally {
+                buildReport.stop(phase, start);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.FileLockUtil;
+
+/**
+ * Persistent queue of {@link PrefetchRequest}s stored in the local repository.<br />
+ * Every operation reads and rewrites the queue file while holding a file lock,
+ * so that sync goals and the prefetch goal may run in different processes at
+ * the same time. If the lock can't be acquired, the operation fails.
+ *
+ * @author y-komori
+ */
+public class PrefetchQueue {
+    public static final String QUEUE_FILENAME = "prefetch.queue";
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * File locks are held by the whole JVM, so threads are serialized by this
+     * monitor.
+     */
+    private static final Object monitor = new Object();
+
+    private final File queueFile;
+
+    private final File lockFile;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param localRepositoryDir
+     *        local repository directory
+     */
+    public PrefetchQueue(File localRepositoryDir) {
+        AssertionUtil.assertNotNull("localRepositoryDir", localRepositoryDir);
+        File dir = new File(localRepositoryDir, NegativeResolutionCache.INDEX_DIR);
+        this.queueFile = new File(dir, QUEUE_FILENAME);
+        this.lockFile = new File(dir, QUEUE_FILENAME + LOCK_SUFFIX);
+    }
+
+    /**
+     * Adds requests to the queue. A request which is already queued is kept
+     * with its retry state.
+     *
+     * @param requests
+     *        requests to add
+     */
+    public void enqueue(Collection<PrefetchRequest> requests) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        synchronized (monitor) {
+            FileLock lock = lock();
+            try {
+                Map<String, PrefetchRequest> queue = read();
+                int size = queue.size();
+                for (PrefetchRequest request : requests) {
+                    if (!queue.containsKey(request.getKey())) {
+                        queue.put(request.getKey(), request);
+                    }
+                }
+                if (queue.size() != size) {
+                    write(queue);
+                    Logger.info((queue.size() - size) + " attachments are queued for prefetch.");
+                }
+            } finally {
+                FileLockUtil.release(lock);
+            }
+        }
+    }
+
+    /**
+     * Returns all queued requests.
+     *
+     * @return queued requests
+     */
+    public List<PrefetchRequest> getRequests() {
+        synchronized (monitor) {
+            FileLock lock = lock();
+            try {
+                return new ArrayList<PrefetchRequest>(read().values());
+            } finally {
+                FileLockUtil.release(lock);
+            }
+        }
+    }
+
+    /**
+     * Removes finished requests, and replaces the retry state of postponed
+     * requests. Requests added by others in the meantime are kept.
+     *
+     * @param finished
+     *        requests to remove
+     * @param postponed
+     *        requests to retry later
+     */
+    public void update(Collection<PrefetchRequest> finished, Collection<PrefetchRequest> postponed) {
+        synchronized (monitor) {
+            FileLock lock = lock();
+            try {
+                Map<String, PrefetchRequest> queue = read();
+                for (PrefetchRequest request : finished) {
+                    queue.remove(request.getKey());
+                }
+                for (PrefetchRequest request : postponed) {
+                    queue.put(request.getKey(), request);
+                }
+                write(queue);
+            } finally {
+                FileLockUtil.release(lock);
+            }
+        }
+    }
+
+    private Map<String, PrefetchRequest> read() {
+        Map<String, PrefetchRequest> queue = new LinkedHashMap<String, PrefetchRequest>();
+        if (!queueFile.exists()) {
+            return queue;
+        }
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(queueFile), ENCODING));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                PrefetchRequest request = PrefetchRequest.parse(line);
+                if (request != null) {
+                    queue.put(request.getKey(), request);
+                }
+            }
+        } catch (IOException ex) {
+            Logger.warn("Failed to read prefetch queue. : " + queueFile.getAbsolutePath(), ex);
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+        return queue;
+    }
+
+    private void write(Map<String, PrefetchRequest> queue) {
+        StringBuilder buf = new StringBuilder(queue.size() * 256);
+        for (PrefetchRequest request : queue.values()) {
+            buf.append(request.toLine()).append(LINE_SEPARATOR);
+        }
+        try {
+            AtomicFileUtil.writeIfChanged(queueFile, buf.toString().getBytes(ENCODING));
+        } catch (IOException ex) {
+            Logger.warn("Failed to write prefetch queue. : " + queueFile.getAbsolutePath(), ex);
+        }
+    }
+
+    private FileLock lock() {
+        try {
+            return FileLockUtil.lock(lockFile);
+        } catch (IOException ex) {
+            throw new PluginRuntimeException("Failed to lock prefetch queue. : " + lockFile.getAbsolutePath(), ex);
+        }
+    }
+}
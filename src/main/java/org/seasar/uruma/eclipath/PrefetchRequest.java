@@ -0,0 +1,227 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import org.apache.commons.lang.StringUtils;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * Request to fetch a source or javadoc artifact in the background.<br />
+ * A request identifies the library artifact, the attachment classifier, and
+ * the {@code .classpath} entry to patch when the attachment is fetched.
+ *
+ * @author y-komori
+ */
+public class PrefetchRequest {
+    private static final String SEPARATOR = "\t";
+
+    private static final String NONE = "-";
+
+    private static final int FIELD_COUNT = 12;
+
+    private final String classifier;
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final String version;
+
+    private final String type;
+
+    private final String baseClassifier;
+
+    private final String projectDir;
+
+    private final String libraryPath;
+
+    private final String attachmentPath;
+
+    private final String destination;
+
+    private int attempts;
+
+    private long notBefore;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param classifier
+     *        {@link ArtifactHelper#SOURCES_CLASSIFIER} or
+     *        {@link ArtifactHelper#JAVADOC_CLASSIFIER}
+     * @param library
+     *        library artifact
+     * @param projectDir
+     *        absolute path of the Eclipse project
+     * @param libraryPath
+     *        path of the {@code .classpath} entry
+     * @param attachmentPath
+     *        source path or javadoc location to write into the entry
+     * @param destination
+     *        absolute path of the file to copy the attachment to, or
+     *        {@code null} if the attachment is referred in the local
+     *        repository
+     */
+    public PrefetchRequest(String classifier, EclipathArtifact library, String projectDir, String libraryPath,
+            String attachmentPath, String destination) {
+        this(classifier, library.groupId(), library.artifactId(), library.version(), library.type(), library
+                .classifier(), projectDir, libraryPath, attachmentPath, destination, 0, 0L);
+    }
+
+    private PrefetchRequest(String classifier, String groupId, String artifactId, String version, String type,
+            String baseClassifier, String projectDir, String libraryPath, String attachmentPath,
+            String destination, int attempts, long notBefore) {
+        this.classifier = classifier;
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.type = type;
+        this.baseClassifier = baseClassifier;
+        this.projectDir = projectDir;
+        this.libraryPath = libraryPath;
+        this.attachmentPath = attachmentPath;
+        this.destination = destination;
+        this.attempts = attempts;
+        this.notBefore = notBefore;
+    }
+
+    /**
+     * Parses a line of the queue file.
+     *
+     * @param line
+     *        line
+     * @return {@link PrefetchRequest}, or {@code null} if the line is broken
+     */
+    public static PrefetchRequest parse(String line) {
+        String[] fields = line.split(SEPARATOR, -1);
+        if (fields.length != FIELD_COUNT) {
+            return null;
+        }
+        try {
+            return new PrefetchRequest(fields[0], fields[1], fields[2], fields[3], fields[4], fromField(fields[5]),
+                    fields[6], fields[7], fields[8], fromField(fields[9]), Integer.parseInt(fields[10]),
+                    Long.parseLong(fields[11]));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the line representation of this request.
+     *
+     * @return line
+     */
+    public String toLine() {
+        StringBuilder buf = new StringBuilder(256);
+        buf.append(classifier).append(SEPARATOR);
+        buf.append(groupId).append(SEPARATOR);
+        buf.append(artifactId).append(SEPARATOR);
+        buf.append(version).append(SEPARATOR);
+        buf.append(type).append(SEPARATOR);
+        buf.append(toField(baseClassifier)).append(SEPARATOR);
+        buf.append(projectDir).append(SEPARATOR);
+        buf.append(libraryPath).append(SEPARATOR);
+        buf.append(attachmentPath).append(SEPARATOR);
+        buf.append(toField(destination)).append(SEPARATOR);
+        buf.append(attempts).append(SEPARATOR);
+        buf.append(notBefore);
+        return buf.toString();
+    }
+
+    /**
+     * Returns the key which identifies this request regardless of its retry
+     * state.
+     *
+     * @return key
+     */
+    public String getKey() {
+        return classifier + ":" + groupId + ":" + artifactId + ":" + version + ":" + type + ":"
+                + toField(baseClassifier) + "@" + projectDir + "!" + libraryPath;
+    }
+
+    /**
+     * Records a failed attempt and postpones the next one.
+     *
+     * @param backoffMillis
+     *        base delay, doubled on every attempt
+     */
+    public void retryLater(long backoffMillis) {
+        long delay = backoffMillis << Math.min(attempts, 16);
+        attempts++;
+        notBefore = System.currentTimeMillis() + delay;
+    }
+
+    public boolean isReady(long now) {
+        return notBefore <= now;
+    }
+
+    public boolean isSources() {
+        return ArtifactHelper.SOURCES_CLASSIFIER.equals(classifier);
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getBaseClassifier() {
+        return baseClassifier;
+    }
+
+    public String getProjectDir() {
+        return projectDir;
+    }
+
+    public String getLibraryPath() {
+        return libraryPath;
+    }
+
+    public String getAttachmentPath() {
+        return attachmentPath;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    private static String toField(String value) {
+        return StringUtils.isEmpty(value) ? NONE : value;
+    }
+
+    private static String fromField(String field) {
+        return NONE.equals(field) ? null : field;
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + ":" + version + ":" + classifier;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.File;
+
+import org.apache.maven.project.MavenProject;
+import org.seasar.uruma.eclipath.classpath.WstProjectFacet;
+import org.seasar.uruma.eclipath.util.ProjectUtil;
+
+/**
+ * Resolved locations of a module.<br />
+ * Locations are looked up once by {@link #resolve(MavenProject)}, and shared
+ * by all goals of a build through {@link BuildContext}.
+ *
+ * @author y-komori
+ */
+public class ProjectLocations {
+    private final File projectDir;
+
+    private final File workspaceDir;
+
+    private final File jdtPrefsFile;
+
+    private final File facetFile;
+
+    private ProjectLocations(File projectDir, File workspaceDir) {
+        this.projectDir = projectDir;
+        this.workspaceDir = workspaceDir;
+        this.jdtPrefsFile = new File(projectDir, ProjectUtil.JDT_PREFS_PATH);
+        this.facetFile = WstProjectFacet.getFacetFile(projectDir);
+    }
+
+    /**
+     * Looks up the locations of the specified project.
+     *
+     * @param project
+     *        Maven project
+     * @return {@link ProjectLocations} object
+     */
+    public static ProjectLocations resolve(MavenProject project) {
+        return new ProjectLocations(ProjectUtil.getProjectDir(project), ProjectUtil.getWorkspaceDir(project));
+    }
+
+    /**
+     * Returns the eclipse project directory.
+     *
+     * @return project directory
+     */
+    public File getProjectDir() {
+        return projectDir;
+    }
+
+    /**
+     * Returns the eclipse workspace directory.
+     *
+     * @return workspace directory, or {@code null} if not found
+     */
+    public File getWorkspaceDir() {
+        return workspaceDir;
+    }
+
+    /**
+     * Returns {@code .settings/org.eclipse.jdt.core.prefs} of the project.
+     * The file may not exist.
+     *
+     * @return JDT preferences file
+     */
+    public File getJdtPrefsFile() {
+        return jdtPrefsFile;
+    }
+
+    /**
+     * Returns {@code .settings/org.eclipse.wst.common.project.facet.core.xml}
+     * of the project. The file may not exist.
+     *
+     * @return project facet file
+     */
+    public File getFacetFile() {
+        return facetFile;
+    }
+}
@@ -17,9 +17,17 @@ package org.seasar.uruma.eclipath;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.maven.project.MavenProject;
@@ -27,26 +35,109 @@ import org.seasar.uruma.eclipath.classpath.EclipseProject;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
 
 /**
+ * Requests ResourceSynchronizer to refresh Eclipse projects.<br />
+ * Several projects are refreshed by a single request. If ResourceSynchronizer
+ * doesn't respond, further requests to the same endpoint are skipped for
+ * {@link #DISABLE_TIME} milliseconds.
+ *
  * @author y-komori
  */
 public class ProjectRefresher {
-    protected int TIMEOUT_TIME = 3 * 1000;
+    protected static final int CONNECT_TIMEOUT_TIME = 500;
+
+    protected static final int TIMEOUT_TIME = 3 * 1000;
+
+    protected static final long DISABLE_TIME = 5 * 60 * 1000;
+
+    /**
+     * Maximum length of a request URL. Projects are split into several
+     * requests if the URL becomes longer.
+     */
+    protected static final int MAX_URL_LENGTH = 2000;
+
+    private static final String ENCODING = "UTF-8";
 
+    /**
+     * Time until which each endpoint is disabled.
+     */
+    private static final Map<String, Long> disabledEndpoints = new HashMap<String, Long>();
+
+    /**
+     * Refreshes the specified project.
+     *
+     * @param project
+     *        Maven project
+     * @param host
+     *        host name of ResourceSynchronizer
+     * @param port
+     *        port number of ResourceSynchronizer
+     * @throws PluginRuntimeException
+     *         if ResourceSynchronizer is not available
+     */
     public void refresh(MavenProject project, String host, int port) {
+        if (!refresh(host, port, Collections.singletonList(getProjectName(project)))) {
+            throw new PluginRuntimeException("Failed to refresh project. ResourceSynchronizer is not available. : "
+                    + host + ":" + port);
+        }
+    }
+
+    /**
+     * Refreshes the specified projects. Failures are logged and never thrown.
+     *
+     * @param host
+     *        host name of ResourceSynchronizer
+     * @param port
+     *        port number of ResourceSynchronizer
+     * @param projectNames
+     *        names of Eclipse projects
+     * @return {@code true} if all requests succeeded
+     */
+    public boolean refresh(String host, int port, Collection<String> projectNames) {
+        if (projectNames.isEmpty()) {
+            return true;
+        }
+        String endpoint = host + ":" + port;
+        if (isDisabled(endpoint)) {
+            Logger.debug("Refresh is skipped because ResourceSynchronizer is not available. : " + endpoint);
+            return false;
+        }
+
+        Logger.info("Refreshing projects : " + projectNames);
+        for (URL url : getRefreshRequestURLs(host, port, projectNames)) {
+            try {
+                sendRequest(url);
+            } catch (PluginRuntimeException ex) {
+                disable(endpoint);
+                Logger.warn(ex.getMessage() + " Refresh is disabled for " + (DISABLE_TIME / 60 / 1000)
+                        + " minutes. : " + ex.getCause());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getProjectName(MavenProject project) {
         EclipseProject eclipseProject = new EclipseProject(project.getBasedir().getAbsolutePath());
-        String projectName = eclipseProject.getProjectName();
-        URL url = getRefleshRequestURL(host, port, projectName);
-        Logger.info("Refreshing project : " + projectName);
-        sendRequest(url);
+        return eclipseProject.getProjectName();
     }
 
-    protected URL getRefleshRequestURL(String hostName, int port, String projectName) {
-        String url = "http://" + hostName + ":" + Integer.toString(port) + "/refresh?" + projectName + "=INFINITE";
-        try {
-            return new URL(url);
-        } catch (MalformedURLException ex) {
-            throw new PluginRuntimeException("Invalid URL : " + url);
+    protected List<URL> getRefreshRequestURLs(String hostName, int port, Collection<String> projectNames) {
+        String base = "http://" + hostName + ":" + Integer.toString(port) + "/refresh?";
+        List<URL> urls = new ArrayList<URL>();
+        StringBuilder url = new StringBuilder(base);
+        for (String projectName : projectNames) {
+            String param = encode(projectName) + "=INFINITE";
+            if (url.length() > base.length() && url.length() + param.length() + 1 > MAX_URL_LENGTH) {
+                urls.add(toURL(url.toString()));
+                url.setLength(base.length());
+            }
+            if (url.length() > base.length()) {
+                url.append('&');
+            }
+            url.append(param);
         }
+        urls.add(toURL(url.toString()));
+        return urls;
     }
 
     protected void sendRequest(URL url) {
@@ -54,6 +145,7 @@ public class ProjectRefresher {
         InputStream is = null;
         try {
             conn = url.openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT_TIME);
             conn.setReadTimeout(TIMEOUT_TIME);
             conn.connect();
             is = conn.getInputStream();
@@ -65,4 +157,39 @@ public class ProjectRefresher {
         return;
     }
 
+    private URL toURL(String url) {
+        try {
+            return new URL(url);
+        } catch (MalformedURLException ex) {
+            throw new PluginRuntimeException("Invalid URL : " + url);
+        }
+    }
+
+    private String encode(String projectName) {
+        try {
+            return URLEncoder.encode(projectName, ENCODING);
+        } catch (UnsupportedEncodingException ex) {
+            throw new PluginRuntimeException(ex);
+        }
+    }
+
+    private static boolean isDisabled(String endpoint) {
+        synchronized (disabledEndpoints) {
+            Long until = disabledEndpoints.get(endpoint);
+            if (until == null) {
+                return false;
+            }
+            if (until.longValue() <= System.currentTimeMillis()) {
+                disabledEndpoints.remove(endpoint);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static void disable(String endpoint) {
+        synchronized (disabledEndpoints) {
+            disabledEndpoints.put(endpoint, System.currentTimeMillis() + DISABLE_TIME);
+        }
+    }
 }
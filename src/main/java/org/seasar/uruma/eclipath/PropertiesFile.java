@@ -16,23 +16,29 @@
 package org.seasar.uruma.eclipath;
 
 import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.apache.commons.io.IOUtils;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
 
 /**
  * @author y-komori
  */
 public class PropertiesFile {
+    private static final String ENCODING = "ISO-8859-1";
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
     private final File file;
 
     private Properties properties;
@@ -72,18 +78,39 @@ public class PropertiesFile {
             return;
         }
 
-        OutputStream os = null;
         try {
-            os = createOutputStream(file);
-            properties.store(os, null);
-            Logger.info("Saved. : " + file.getAbsolutePath());
+            if (AtomicFileUtil.writeIfChanged(file, toByteArray(properties))) {
+                Logger.info("Saved. : " + file.getAbsolutePath());
+            }
         } catch (IOException ex) {
             throw new PluginRuntimeException("Failed to save file. : " + file.getAbsolutePath(), ex);
-        } finally {
-            IOUtils.closeQuietly(os);
         }
     }
 
+    /**
+     * Serializes the properties without the time stamp comment, and sorts
+     * the entries by key so that the same properties always produce the same
+     * bytes.
+     */
+    private byte[] toByteArray(Properties props) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(1024);
+        props.store(os, null);
+        String[] lines = os.toString(ENCODING).split("\\r?\\n");
+        List<String> entries = new ArrayList<String>(lines.length);
+        for (String line : lines) {
+            if (line.length() > 0 && !line.startsWith("#")) {
+                entries.add(line);
+            }
+        }
+        Collections.sort(entries);
+
+        StringBuilder buf = new StringBuilder(os.size());
+        for (String entry : entries) {
+            buf.append(entry).append(LINE_SEPARATOR);
+        }
+        return buf.toString().getBytes(ENCODING);
+    }
+
     /**
      * @param key
      * @return
@@ -122,17 +149,4 @@ public class PropertiesFile {
             throw new PluginRuntimeException("File not found. : " + file.getAbsolutePath());
         }
     }
-
-    protected OutputStream createOutputStream(File file) {
-        try {
-            if (!file.exists()) {
-                file.createNewFile();
-            }
-            return new BufferedOutputStream(new FileOutputStream(file));
-        } catch (FileNotFoundException ex) {
-            throw new PluginRuntimeException("File not found. : " + file.getAbsolutePath());
-        } catch (IOException ex) {
-            throw new PluginRuntimeException("File could not create. : " + file.getAbsolutePath());
-        }
-    }
 }
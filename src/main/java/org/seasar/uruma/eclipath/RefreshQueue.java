@@ -0,0 +1,180 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
+
+/**
+ * Collects refresh requests of a build, and sends them to ResourceSynchronizer
+ * in a background thread.<br />
+ * Projects are coalesced into a single request per endpoint when the queue is
+ * flushed. Requests which are not flushed by the end of the build are sent by
+ * {@link #finish()}. It waits for the background threads for at most
+ * {@link #FINISH_WAIT_TIME} milliseconds in total, which is the connect
+ * timeout of {@link ProjectRefresher}, so that the end of the build is delayed
+ * by at most that time even if ResourceSynchronizer is not running. Requests
+ * which are still running afterwards may be lost when the JVM exits.
+ *
+ * @author y-komori
+ */
+public class RefreshQueue {
+    protected static final long FINISH_WAIT_TIME = ProjectRefresher.CONNECT_TIMEOUT_TIME;
+
+    private static final NamedThreadFactory threadFactory = new NamedThreadFactory("refresh");
+
+    private final ProjectRefresher refresher;
+
+    /**
+     * Project names for each {@code host:port}.
+     */
+    private final Map<Endpoint, Set<String>> pending = new LinkedHashMap<Endpoint, Set<String>>();
+
+    private final List<Thread> running = new ArrayList<Thread>();
+
+    /**
+     * Constructs new instance.
+     */
+    public RefreshQueue() {
+        this(new ProjectRefresher());
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param refresher
+     *        {@link ProjectRefresher} to send requests
+     */
+    public RefreshQueue(ProjectRefresher refresher) {
+        this.refresher = refresher;
+    }
+
+    /**
+     * Adds a project to refresh.
+     *
+     * @param host
+     *        host name of ResourceSynchronizer
+     * @param port
+     *        port number of ResourceSynchronizer
+     * @param projectName
+     *        name of the Eclipse project
+     */
+    public synchronized void add(String host, int port, String projectName) {
+        Endpoint endpoint = new Endpoint(host, port);
+        Set<String> projectNames = pending.get(endpoint);
+        if (projectNames == null) {
+            projectNames = new LinkedHashSet<String>();
+            pending.put(endpoint, projectNames);
+        }
+        projectNames.add(projectName);
+    }
+
+    /**
+     * Sends pending requests in a background thread, and returns immediately.
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final Map<Endpoint, Set<String>> requests = new LinkedHashMap<Endpoint, Set<String>>(pending);
+        pending.clear();
+
+        Thread thread = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                send(requests);
+            }
+        });
+        running.add(thread);
+        thread.start();
+    }
+
+    private void send(Map<Endpoint, Set<String>> requests) {
+        try {
+            for (Map.Entry<Endpoint, Set<String>> entry : requests.entrySet()) {
+                Endpoint endpoint = entry.getKey();
+                refresher.refresh(endpoint.host, endpoint.port, entry.getValue());
+            }
+        } catch (RuntimeException ex) {
+            Logger.warn("Failed to refresh projects. : " + ex.getMessage());
+        } finally {
+            synchronized (this) {
+                running.remove(Thread.currentThread());
+            }
+        }
+    }
+
+    /**
+     * Sends pending requests in a background thread, and waits for running
+     * requests for at most {@link #FINISH_WAIT_TIME} milliseconds. This method
+     * is called when the build ends.
+     */
+    public void finish() {
+        List<Thread> threads;
+        synchronized (this) {
+            flush();
+            threads = new ArrayList<Thread>(running);
+        }
+
+        long deadline = System.currentTimeMillis() + FINISH_WAIT_TIME;
+        for (Thread thread : threads) {
+            long wait = deadline - System.currentTimeMillis();
+            if (wait <= 0) {
+                return;
+            }
+            try {
+                thread.join(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Address of ResourceSynchronizer.
+     */
+    private static class Endpoint {
+        final String host;
+
+        final int port;
+
+        Endpoint(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        @Override
+        public int hashCode() {
+            return host.hashCode() * 31 + port;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Endpoint)) {
+                return false;
+            }
+            Endpoint other = (Endpoint) obj;
+            return host.equals(other.host) && port == other.port;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.seasar.uruma.eclipath.report.BuildReport;
+import org.seasar.uruma.eclipath.report.RepositoryStats;
+
+/**
+ * Records the latency and the outcome of each download from remote
+ * repositories into {@link BuildReport}.<br />
+ * Repositories are identified by their URL, and reported with the id of the
+ * matching {@link RemoteRepository}. Checksum files are not recorded.
+ *
+ * @author y-komori
+ */
+public class RepositoryLatencyListener extends AbstractTransferListener {
+    private static final String[] CHECKSUM_EXTENSIONS = { ".sha1", ".md5" };
+
+    private final BuildReport buildReport;
+
+    private final Map<String, String> repositoryIds = new HashMap<String, String>();
+
+    private final ConcurrentMap<TransferResource, Long> startTimes = new ConcurrentHashMap<TransferResource, Long>();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param repositories
+     *        remote repositories to identify
+     * @param buildReport
+     *        report to record
+     */
+    public RepositoryLatencyListener(List<RemoteRepository> repositories, BuildReport buildReport) {
+        this.buildReport = buildReport;
+        if (repositories != null) {
+            for (RemoteRepository repository : repositories) {
+                repositoryIds.put(normalizeUrl(repository.getUrl()), repository.getId());
+            }
+        }
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent event) {
+        if (!isChecksum(event.getResource())) {
+            startTimes.put(event.getResource(), System.nanoTime());
+        }
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        long millis = stop(event);
+        if (millis >= 0) {
+            getStats(event).recordSuccess(millis);
+        }
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        long millis = stop(event);
+        if (millis < 0) {
+            return;
+        }
+        if (isNotFound(event.getException())) {
+            getStats(event).recordMiss(millis);
+        } else {
+            getStats(event).recordError(millis);
+        }
+    }
+
+    /**
+     * Returns the elapsed time of the transfer.
+     *
+     * @return elapsed time in milliseconds, or {@code -1} if the transfer is
+     *         not recorded
+     */
+    private long stop(TransferEvent event) {
+        Long start = startTimes.remove(event.getResource());
+        if (start == null) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private RepositoryStats getStats(TransferEvent event) {
+        String url = normalizeUrl(event.getResource().getRepositoryUrl());
+        String id = repositoryIds.get(url);
+        return buildReport.getRepositoryStats(id != null ? id : url);
+    }
+
+    private static boolean isChecksum(TransferResource resource) {
+        String name = resource.getResourceName();
+        for (String extension : CHECKSUM_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the exception or its causes tell that the resource doesn't
+     * exist. Connectors report it either by aether's exceptions or by their
+     * own exceptions such as {@code ResourceDoesNotExistException} of Wagon.
+     */
+    private static boolean isNotFound(Throwable exception) {
+        for (Throwable t = exception; t != null; t = t.getCause()) {
+            if (t instanceof ArtifactNotFoundException || t instanceof MetadataNotFoundException) {
+                return true;
+            }
+            String name = t.getClass().getSimpleName();
+            if (name.endsWith("NotFoundException") || name.endsWith("DoesNotExistException")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalizeUrl(String url) {
+        if (url == null) {
+            return "";
+        }
+        String result = url;
+        while (result.endsWith("/")) {
+            result = result.substring(0, result.length() - 1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * In-memory cache of artifact resolution results, shared by all modules of a
+ * build. Resolved results and artifacts which are not found are cached, but
+ * transient failures are not, so that other modules retry them. The key
+ * consists of the artifact coordinates and the remote repositories, so
+ * modules which declare different repositories don't share their results.
+ *
+ * @author y-komori
+ */
+public class ResolutionCache {
+    private final Map<String, ArtifactResult> results = new ConcurrentHashMap<String, ArtifactResult>();
+
+    /**
+     * Returns the cached result of the specified artifact.
+     *
+     * @param artifact
+     *        artifact
+     * @param repositories
+     *        remote repositories which the artifact is resolved from
+     * @return cached result, or {@code null} if not cached
+     */
+    public ArtifactResult get(EclipathArtifact artifact, List<RemoteRepository> repositories) {
+        return results.get(createKey(artifact, repositories));
+    }
+
+    /**
+     * Caches the result of the specified artifact. The caller must not pass
+     * results which failed by transient errors.
+     *
+     * @param artifact
+     *        artifact
+     * @param repositories
+     *        remote repositories which the artifact is resolved from
+     * @param result
+     *        resolution result
+     */
+    public void put(EclipathArtifact artifact, List<RemoteRepository> repositories, ArtifactResult result) {
+        results.put(createKey(artifact, repositories), result);
+    }
+
+    private String createKey(EclipathArtifact artifact, List<RemoteRepository> repositories) {
+        StringBuilder buf = new StringBuilder(128);
+        buf.append(artifact.groupId()).append(':');
+        buf.append(artifact.artifactId()).append(':');
+        buf.append(artifact.version()).append(':');
+        buf.append(artifact.classifier() != null ? artifact.classifier() : "").append(':');
+        buf.append(artifact.type());
+        if (repositories != null) {
+            for (RemoteRepository repository : repositories) {
+                buf.append('|').append(repository.getId()).append('=').append(repository.getUrl());
+            }
+        }
+        return buf.toString();
+    }
+}
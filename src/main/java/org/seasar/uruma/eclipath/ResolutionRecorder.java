@@ -0,0 +1,143 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.RepositoryUtils;
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.WorkspaceRepository;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * Records the repository and the time of each artifact resolution.<br />
+ * The time is measured from the {@code artifactResolving} event to the
+ * {@code artifactResolved} event, so that it includes the time waiting for
+ * other artifacts of the same request. Artifacts are identified regardless of
+ * the timestamp of snapshot versions.
+ *
+ * @author y-komori
+ */
+public class ResolutionRecorder extends AbstractRepositoryListener {
+    public static final String LOCAL_REPOSITORY_ID = "local";
+
+    public static final String WORKSPACE_REPOSITORY_ID = "workspace";
+
+    private final ConcurrentMap<String, Long> startTimes = new ConcurrentHashMap<String, Long>();
+
+    private final ConcurrentMap<String, Record> records = new ConcurrentHashMap<String, Record>();
+
+    @Override
+    public void artifactResolving(RepositoryEvent event) {
+        startTimes.put(key(event.getArtifact()), System.nanoTime());
+    }
+
+    @Override
+    public void artifactResolved(RepositoryEvent event) {
+        String key = key(event.getArtifact());
+        Long start = startTimes.remove(key);
+        long nanos = start != null ? System.nanoTime() - start : 0;
+
+        boolean missing = event.getException() instanceof ArtifactNotFoundException;
+        records.put(key, new Record(getRepositoryId(event.getRepository()), nanos / 1000000, missing));
+    }
+
+    /**
+     * Returns the record of the specified artifact.
+     *
+     * @param artifact
+     *        artifact
+     * @return {@link Record}, or {@code null} if the artifact is not resolved
+     *         after this recorder is registered
+     */
+    public Record getRecord(EclipathArtifact artifact) {
+        return records.get(key(RepositoryUtils.toArtifact(artifact.getArtifact())));
+    }
+
+    /**
+     * Returns the id of the specified repository. Local and workspace
+     * repositories have fixed ids.
+     *
+     * @param repository
+     *        repository, may be {@code null}
+     * @return repository id, or {@code null} if {@code repository} is
+     *         {@code null}
+     */
+    public static String getRepositoryId(ArtifactRepository repository) {
+        if (repository instanceof RemoteRepository) {
+            return ((RemoteRepository) repository).getId();
+        } else if (repository instanceof LocalRepository) {
+            return LOCAL_REPOSITORY_ID;
+        } else if (repository instanceof WorkspaceRepository) {
+            return WORKSPACE_REPOSITORY_ID;
+        } else if (repository != null) {
+            return repository.getId();
+        }
+        return null;
+    }
+
+    private static String key(Artifact artifact) {
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getExtension() + ":"
+                + artifact.getClassifier() + ":" + artifact.getBaseVersion();
+    }
+
+    /**
+     * Result of an artifact resolution.
+     */
+    public static class Record {
+        private final String repositoryId;
+
+        private final long millis;
+
+        private final boolean missing;
+
+        Record(String repositoryId, long millis, boolean missing) {
+            this.repositoryId = repositoryId;
+            this.millis = millis;
+            this.missing = missing;
+        }
+
+        /**
+         * Returns the id of the repository which the artifact is resolved
+         * from.
+         *
+         * @return repository id, or {@code null} if not resolved
+         */
+        public String getRepositoryId() {
+            return repositoryId;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Returns whether the artifact is not found in any repository.
+         *
+         * @return {@code true} if not found
+         */
+        public boolean isMissing() {
+            return missing;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+
+/**
+ * Fingerprint of all inputs of the sync goal.<br />
+ * The fingerprint is a SHA-1 hash of named values and file time stamps. It is
+ * stored in a state file, and compared with the one of the next execution to
+ * detect whether anything is changed.
+ *
+ * @author y-komori
+ */
+public class SyncFingerprint {
+    private static final String KEY_FINGERPRINT = "fingerprint";
+
+    private static final String KEY_CREATED = "created";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest digest;
+
+    private String value;
+
+    public SyncFingerprint() {
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new PluginRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Adds a named value to this fingerprint.
+     *
+     * @param name
+     *        name of the value
+     * @param value
+     *        value, may be {@code null}
+     * @return this object
+     */
+    public SyncFingerprint add(String name, Object value) {
+        if (this.value != null) {
+            throw new IllegalStateException("fingerprint is already computed.");
+        }
+        update(name);
+        update("=");
+        update(String.valueOf(value));
+        update("\n");
+        return this;
+    }
+
+    /**
+     * Adds the time stamp and the size of the specified file to this
+     * fingerprint.
+     *
+     * @param name
+     *        name of the file
+     * @param file
+     *        file, may not exist
+     * @return this object
+     */
+    public SyncFingerprint addFile(String name, File file) {
+        if (file != null && file.exists()) {
+            return add(name, file.getAbsolutePath() + ";" + file.lastModified() + ";" + file.length());
+        } else {
+            return add(name, "absent");
+        }
+    }
+
+    /**
+     * Returns the hexadecimal representation of this fingerprint.
+     *
+     * @return fingerprint value
+     */
+    public String getValue() {
+        if (value == null) {
+            byte[] bytes = digest.digest();
+            char[] chars = new char[bytes.length * 2];
+            for (int i = 0; i < bytes.length; i++) {
+                chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0f];
+                chars[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+            }
+            value = new String(chars);
+        }
+        return value;
+    }
+
+    /**
+     * Checks whether this fingerprint equals to the one stored in the
+     * specified state file.
+     *
+     * @param stateFile
+     *        state file
+     * @param maxAgeMillis
+     *        if positive, the stored fingerprint older than this value is
+     *        treated as changed
+     * @return {@code true} if nothing is changed
+     */
+    public boolean isSameAs(File stateFile, long maxAgeMillis) {
+        if (!stateFile.exists()) {
+            return false;
+        }
+
+        Properties props = new Properties();
+        InputStream is = null;
+        try {
+            is = new BufferedInputStream(new FileInputStream(stateFile));
+            props.load(is);
+        } catch (IOException ex) {
+            Logger.debug("Failed to load sync state. : " + stateFile.getAbsolutePath());
+            return false;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+
+        if (maxAgeMillis > 0) {
+            try {
+                long created = Long.parseLong(props.getProperty(KEY_CREATED, "0"));
+                if (System.currentTimeMillis() - created > maxAgeMillis) {
+                    return false;
+                }
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        return getValue().equals(props.getProperty(KEY_FINGERPRINT));
+    }
+
+    /**
+     * Stores this fingerprint to the specified state file.
+     *
+     * @param stateFile
+     *        state file
+     */
+    public void store(File stateFile) {
+        File dir = stateFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            Logger.warn("Failed to create directory. : " + dir.getAbsolutePath());
+            return;
+        }
+
+        Properties props = new Properties();
+        props.setProperty(KEY_FINGERPRINT, getValue());
+        props.setProperty(KEY_CREATED, Long.toString(System.currentTimeMillis()));
+        OutputStream os = null;
+        try {
+            os = new BufferedOutputStream(new FileOutputStream(stateFile));
+            props.store(os, null);
+        } catch (IOException ex) {
+            Logger.warn("Failed to store sync state. : " + stateFile.getAbsolutePath(), ex);
+        } finally {
+            IOUtils.closeQuietly(os);
+        }
+    }
+
+    private void update(String str) {
+        try {
+            digest.update(str.getBytes(ENCODING));
+        } catch (UnsupportedEncodingException ex) {
+            throw new PluginRuntimeException(ex);
+        }
+    }
+}
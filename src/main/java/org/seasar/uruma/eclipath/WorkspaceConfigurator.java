@@ -49,10 +49,18 @@ public class WorkspaceConfigurator {
     private PropertiesFile eclipseJdtCorePrefs;
 
     /**
-     * @param workspaceDir
+     * @param project
      */
     public WorkspaceConfigurator(MavenProject project) {
-        this.workspaceDir = ProjectUtil.getWorkspaceDir(project);
+        this(ProjectUtil.getWorkspaceDir(project));
+    }
+
+    /**
+     * @param workspaceDir
+     *        workspace directory, may be {@code null}
+     */
+    public WorkspaceConfigurator(File workspaceDir) {
+        this.workspaceDir = workspaceDir;
         if (this.workspaceDir != null) {
             Logger.info("eclipse workspace directory deteceted. : " + this.workspaceDir.getAbsolutePath());
         }
@@ -17,34 +17,25 @@ package org.seasar.uruma.eclipath.classpath;
 
 import static org.seasar.uruma.eclipath.Constants.*;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.apache.commons.io.IOUtils;
+import java.util.Map;
+
 import org.apache.commons.lang.StringUtils;
 import org.seasar.uruma.eclipath.Logger;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.model.ArtifactFileName;
 import org.seasar.uruma.eclipath.model.ClasspathKind;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
 import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.XmlUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -96,6 +87,20 @@ public class EclipseClasspath {
 
     protected boolean isChanged;
 
+    protected int addedEntryCount;
+
+    protected int removedEntryCount;
+
+    /**
+     * Index from path to classpathentry elements.
+     */
+    protected Map<String, List<Element>> pathIndex = new HashMap<String, List<Element>>();
+
+    /**
+     * Index from version independent artifact key to classpathentry elements.
+     */
+    protected Map<String, List<Element>> keyIndex = new HashMap<String, List<Element>>();
+
     /**
      * Constructs new instance.
      *
@@ -107,6 +112,15 @@ public class EclipseClasspath {
         classpathFile = new File(filename);
     }
 
+    /**
+     * Returns the .classpath file.
+     *
+     * @return .classpath file
+     */
+    public File getClasspathFile() {
+        return classpathFile;
+    }
+
     public Document load() {
         if (classpathFile.exists()) {
             isChanged = false;
@@ -118,34 +132,20 @@ public class EclipseClasspath {
     }
 
     private Document createEmptyDotClassPath() {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder;
-        try {
-            builder = factory.newDocumentBuilder();
-            Document document = builder.newDocument();
-            classpathElement = document.createElement(ELEMENT_CLASSPATH);
-            document.appendChild(classpathElement);
-            return document;
-        } catch (ParserConfigurationException ex) {
-            throw new PluginRuntimeException(ex);
-        }
+        document = XmlUtil.newDocument();
+        classpathElement = document.createElement(ELEMENT_CLASSPATH);
+        document.appendChild(classpathElement);
+        buildIndex();
+        return document;
     }
 
     private Document loadDotClassPath(File file) {
         Logger.info("Loading " + file.getAbsolutePath() + " ...");
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder;
         try {
-            builder = factory.newDocumentBuilder();
-            document = builder.parse(file);
+            document = XmlUtil.parse(file);
             classpathElement = document.getDocumentElement();
 
-            NodeList nodeList = document.getElementsByTagName(ELEMENT_CLASSPATHENTRY);
-            int length = nodeList.getLength();
-            for (int i = 0; i < length; i++) {
-                Element element = (Element) nodeList.item(i);
-                Logger.debug("ClasspathEntry loaded.  path=" + element.getAttribute(ATTR_PATH));
-            }
+            buildIndex();
             return document;
         } catch (Exception ex) {
             throw new PluginRuntimeException(ex);
@@ -180,6 +180,7 @@ public class EclipseClasspath {
         classpathElement.appendChild(entry);
         entry.setAttribute(ATTR_KIND, kind.toString());
         entry.setAttribute(ATTR_PATH, path);
+        addIndex(entry);
 
         if (sourcePath != null) {
             entry.setAttribute(ATTR_SOURCEPATH, sourcePath);
@@ -188,6 +189,7 @@ public class EclipseClasspath {
             addAttributeElement(entry, ATTRNAME_JAVADOC_LOCATION, javadocPath);
         }
         Logger.info("Library added.   : " + path);
+        addedEntryCount++;
         isChanged = true;
         return;
     }
@@ -207,7 +209,9 @@ public class EclipseClasspath {
                 // JRE Container is ok, nothing to do.
                 return;
             } else {
+                removeIndex(existingEntry);
                 existingEntry.setAttribute(ATTR_PATH, path);
+                addIndex(existingEntry);
                 Logger.info("JRE Container changed. : " + jre);
                 isChanged = true;
                 return;
@@ -218,20 +222,23 @@ public class EclipseClasspath {
             classpathElement.appendChild(entry);
             entry.setAttribute(ATTR_KIND, KIND_CON);
             entry.setAttribute(ATTR_PATH, path);
+            addIndex(entry);
 
             Logger.info("JRE Container added. : " + jre);
+            addedEntryCount++;
             isChanged = true;
             return;
         }
     }
 
     public Element findJavaContainerClasspathEntry() {
-        NodeList elements = document.getElementsByTagName(ELEMENT_CLASSPATHENTRY);
+        NodeList elements = classpathElement.getChildNodes();
         int size = elements.getLength();
         for (int i = 0; i < size; i++) {
-            Element element = (Element) (elements.item(i));
-            if (element.getAttribute(ATTR_PATH).startsWith(CLASSPATH_JRE_CONTAINER_PREFIX)) {
-                return element;
+            Node node = elements.item(i);
+            if (isClasspathEntry(node)
+                    && ((Element) node).getAttribute(ATTR_PATH).startsWith(CLASSPATH_JRE_CONTAINER_PREFIX)) {
+                return (Element) node;
             }
         }
         return null;
@@ -267,31 +274,85 @@ public class EclipseClasspath {
         isChanged = true;
     }
 
-    public Element findClasspathEntry(String path) {
-        NodeList elements = document.getElementsByTagName(ELEMENT_CLASSPATHENTRY);
-        int size = elements.getLength();
-        for (int i = 0; i < size; i++) {
-            Element element = (Element) (elements.item(i));
-            if (path.equals(element.getAttribute(ATTR_PATH))) {
-                return element;
+    /**
+     * Sets the source path of the specified classpathentry element.
+     *
+     * @param entry
+     *        classpathentry element
+     * @param sourcePath
+     *        source path, or {@code null} to remove
+     */
+    public void setSourcePath(Element entry, String sourcePath) {
+        String current = entry.getAttribute(ATTR_SOURCEPATH);
+        if (sourcePath == null) {
+            if (entry.hasAttribute(ATTR_SOURCEPATH)) {
+                entry.removeAttribute(ATTR_SOURCEPATH);
+                isChanged = true;
             }
+        } else if (!sourcePath.equals(current)) {
+            entry.setAttribute(ATTR_SOURCEPATH, sourcePath);
+            isChanged = true;
         }
-        return null;
     }
 
-    public List<Element> findClasspathEntry(Pattern pattern) {
-        List<Element> result = new ArrayList<Element>();
-        NodeList elements = document.getElementsByTagName(ELEMENT_CLASSPATHENTRY);
-        int size = elements.getLength();
-        for (int i = 0; i < size; i++) {
-            Element element = (Element) (elements.item(i));
-            String path = element.getAttribute(ATTR_PATH);
-            Matcher matcher = pattern.matcher(path);
-            if (matcher.matches()) {
-                result.add(element);
+    /**
+     * Sets the javadoc location of the specified classpathentry element.
+     *
+     * @param entry
+     *        classpathentry element
+     * @param javadocLocation
+     *        javadoc location, or {@code null} to remove
+     */
+    public void setJavadocLocation(Element entry, String javadocLocation) {
+        NodeList attributes = entry.getElementsByTagName(ELEMENT_ATTRIBUTE);
+        int length = attributes.getLength();
+        for (int i = 0; i < length; i++) {
+            Element attribute = (Element) attributes.item(i);
+            if (ATTRNAME_JAVADOC_LOCATION.equals(attribute.getAttribute(ATTR_NAME))) {
+                if (javadocLocation == null) {
+                    Node parent = attribute.getParentNode();
+                    parent.removeChild(attribute);
+                    if (((Element) parent).getElementsByTagName(ELEMENT_ATTRIBUTE).getLength() == 0) {
+                        entry.removeChild(parent);
+                    }
+                    isChanged = true;
+                } else if (!javadocLocation.equals(attribute.getAttribute(ATTR_VALUE))) {
+                    attribute.setAttribute(ATTR_VALUE, javadocLocation);
+                    isChanged = true;
+                }
+                return;
             }
         }
-        return result;
+        if (javadocLocation != null) {
+            addAttributeElement(entry, ATTRNAME_JAVADOC_LOCATION, javadocLocation);
+        }
+    }
+
+    public Element findClasspathEntry(String path) {
+        List<Element> elements = pathIndex.get(path);
+        if (elements != null) {
+            return elements.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * Finds classpathentry elements which refer to any version of the same
+     * artifact. The result may contain entries of another artifact whose
+     * artifact id starts with the same name and a numeric part, such as
+     * {@code log4j-1.2-api} for {@code log4j}.
+     *
+     * @param key
+     *        version independent key of the artifact
+     * @return list of classpathentry elements
+     * @see EclipathArtifact#getVersionIndependentKey()
+     */
+    public List<Element> findClasspathEntriesByKey(String key) {
+        List<Element> elements = keyIndex.get(key);
+        if (elements != null) {
+            return new ArrayList<Element>(elements);
+        }
+        return new ArrayList<Element>();
     }
 
     public void removeClasspathEntries(Collection<ClasspathEntry> entries) {
@@ -317,14 +378,95 @@ public class EclipseClasspath {
         Node nextSibling = entry.getNextSibling();
         Node removed = classpathElement.removeChild(entry);
         if (removed != null) {
+            removeIndex(entry);
             if (nextSibling != null && isWhitespaceText(nextSibling)) {
                 classpathElement.removeChild(nextSibling);
             }
             Logger.info("Library removed. : " + entry.getAttribute(ATTR_PATH));
+            removedEntryCount++;
             isChanged = true;
         }
     }
 
+    private void buildIndex() {
+        pathIndex.clear();
+        keyIndex.clear();
+        NodeList childNodes = classpathElement.getChildNodes();
+        int length = childNodes.getLength();
+        for (int i = 0; i < length; i++) {
+            Node node = childNodes.item(i);
+            if (isClasspathEntry(node)) {
+                Element element = (Element) node;
+                addIndex(element);
+                Logger.debug("ClasspathEntry loaded.  path=" + element.getAttribute(ATTR_PATH));
+            }
+        }
+    }
+
+    /**
+     * Adds the entry to the indexes. The entry is indexed with every possible
+     * key of its file name, because the artifact id can't be determined from
+     * the file name alone.
+     */
+    private void addIndex(Element entry) {
+        String path = entry.getAttribute(ATTR_PATH);
+        addIndex(pathIndex, path, entry);
+        for (ArtifactFileName fileName : ArtifactFileName.parseAll(path)) {
+            addIndex(keyIndex, fileName.getVersionIndependentKey(), entry);
+        }
+    }
+
+    private void addIndex(Map<String, List<Element>> index, String key, Element entry) {
+        List<Element> elements = index.get(key);
+        if (elements == null) {
+            elements = new ArrayList<Element>(1);
+            index.put(key, elements);
+        }
+        elements.add(entry);
+    }
+
+    private void removeIndex(Element entry) {
+        String path = entry.getAttribute(ATTR_PATH);
+        removeIndex(pathIndex, path, entry);
+        for (ArtifactFileName fileName : ArtifactFileName.parseAll(path)) {
+            removeIndex(keyIndex, fileName.getVersionIndependentKey(), entry);
+        }
+    }
+
+    private void removeIndex(Map<String, List<Element>> index, String key, Element entry) {
+        List<Element> elements = index.get(key);
+        if (elements != null) {
+            elements.remove(entry);
+            if (elements.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private boolean isClasspathEntry(Node node) {
+        return node.getNodeType() == Node.ELEMENT_NODE && ELEMENT_CLASSPATHENTRY.equals(node.getNodeName());
+    }
+
+    /**
+     * Returns the number of classpathentry elements added since this object
+     * is created.
+     *
+     * @return number of added elements
+     */
+    public int getAddedEntryCount() {
+        return addedEntryCount;
+    }
+
+    /**
+     * Returns the number of classpathentry elements removed since this object
+     * is created.
+     *
+     * @return number of removed elements
+     */
+    public int getRemovedEntryCount() {
+        return removedEntryCount;
+    }
+
     public String getPath(Element classpathEntry) {
         return classpathEntry.getAttribute(ATTR_PATH);
     }
@@ -344,30 +486,20 @@ public class EclipseClasspath {
             return;
         }
 
-        BufferedOutputStream os = null;
         try {
-            os = new BufferedOutputStream(new FileOutputStream(classpathFile));
+            ByteArrayOutputStream os = new ByteArrayOutputStream(8192);
             writeDocument(os);
-            os.flush();
-            Logger.info(".classpath wrote : " + classpathFile.getAbsolutePath());
+            if (AtomicFileUtil.writeIfChanged(classpathFile, os.toByteArray())) {
+                Logger.info(".classpath wrote : " + classpathFile.getAbsolutePath());
+            } else {
+                Logger.info(".classpath is not changed.");
+            }
         } catch (IOException ex) {
             Logger.error(ex.getLocalizedMessage(), ex);
-        } finally {
-            IOUtils.closeQuietly(os);
         }
     }
 
-    private void writeDocument(OutputStream out) {
-        TransformerFactory factory = TransformerFactory.newInstance();
-        try {
-            Transformer transformer = factory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xalan}indent-amount", "2");
-            Source source = new DOMSource(document);
-            Result result = new StreamResult(out);
-            transformer.transform(source, result);
-        } catch (Exception ex) {
-            throw new PluginRuntimeException(ex);
-        }
+    private void writeDocument(OutputStream out) throws IOException {
+        XmlUtil.write(document, out);
     }
 }
@@ -15,26 +15,19 @@
  */
 package org.seasar.uruma.eclipath.classpath;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 
-import org.apache.commons.io.IOUtils;
 import org.seasar.uruma.eclipath.Constants;
-import org.seasar.uruma.eclipath.Logger;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import org.seasar.uruma.eclipath.util.ProjectMetadataCache;
 
 /**
- * The class dealing with the Eclipse .project file.
+ * The class dealing with the Eclipse .project file.<br />
+ * Project names are cached by {@link ProjectMetadataCache}.
  *
  * @author y-komori
  */
@@ -63,63 +56,18 @@ public class EclipseProject {
     }
 
     private void load(String path) {
-        Logger.info("Loading " + dotProjectFilePath);
-
-        BufferedInputStream is = null;
-
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
         try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-
-            is = new BufferedInputStream(new FileInputStream(path));
-            Document doc = builder.parse(is);
-
-            Node projectDescriptionNode = getProjectDescriptionNode(doc);
-            if (projectDescriptionNode != null) {
-                Node nameNode = getNameNode(projectDescriptionNode);
-                if (nameNode != null) {
-                    this.projectName = nameNode.getTextContent();
-                }
-            }
+            this.projectName = ProjectMetadataCache.getProjectName(new File(path));
         } catch (FileNotFoundException e) {
             throw new PluginRuntimeException(".project file is not found : " + dotProjectFilePath, e);
-        } catch (SAXException e) {
+        } catch (XMLStreamException e) {
             throw new PluginRuntimeException("Couldn't find project name in " + dotProjectFilePath, e);
         } catch (IOException e) {
             throw new PluginRuntimeException("Failed to loading .project file : " + dotProjectFilePath, e);
-        } catch (ParserConfigurationException e) {
-            throw new PluginRuntimeException("Failed to loading .project file : " + dotProjectFilePath, e);
-        } finally {
-            IOUtils.closeQuietly(is);
         }
 
         if (this.projectName == null) {
             throw new PluginRuntimeException("Couldn't find project name in " + dotProjectFilePath);
         }
     }
-
-    private Node getProjectDescriptionNode(Document document) {
-        NodeList children = document.getChildNodes();
-        int len = children.getLength();
-        for (int i = 0; i < len; i++) {
-            Node node = children.item(i);
-            if ("projectDescription".equals(node.getNodeName())) {
-                return node;
-            }
-        }
-        return null;
-    }
-
-    private Node getNameNode(Node projectDescriptionNode) {
-        NodeList children = projectDescriptionNode.getChildNodes();
-        int len = children.getLength();
-        for (int i = 0; i < len; i++) {
-            Node node = children.item(i);
-            if ("name".equals(node.getNodeName())) {
-                return node;
-            }
-        }
-        return null;
-    }
-
 }
@@ -17,27 +17,17 @@ package org.seasar.uruma.eclipath.classpath;
 
 import static org.seasar.uruma.eclipath.Constants.*;
 
-import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Result;
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.seasar.uruma.eclipath.Logger;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
 import org.seasar.uruma.eclipath.util.AssertionUtil;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.XmlUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
@@ -70,13 +60,26 @@ public class WstProjectFacet {
     /**
      * Constructs new instance.
      *
+     * @param facetCoreFile
+     *        project facet file returned by {@link #getFacetFile(File)}
+     */
+    public WstProjectFacet(File facetCoreFile) {
+        AssertionUtil.assertNotNull("facetCoreFile", facetCoreFile);
+        this.facetCoreFile = facetCoreFile;
+    }
+
+    /**
+     * Returns {@code org.eclipse.wst.common.project.facet.core.xml} of the
+     * project.
+     *
      * @param projectBaseDir
+     *        eclipse project directory
+     * @return project facet file, which may not exist
      */
-    public WstProjectFacet(File projectBaseDir) {
-        AssertionUtil.assertNotNull("projectBaseDir", projectBaseDir);
+    public static File getFacetFile(File projectBaseDir) {
         String filename = projectBaseDir.getAbsolutePath() + SEP + SETTINGS_DIR + SEP
                 + WST_COMMON_PROJECT_FACET_CORE_XML_FILENAME;
-        facetCoreFile = new File(filename);
+        return new File(filename);
     }
 
     /**
@@ -132,11 +135,8 @@ public class WstProjectFacet {
 
     private Document loadProjectFacet(File file) {
         Logger.debug("loading " + file.getAbsolutePath() + " ...");
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder;
         try {
-            builder = factory.newDocumentBuilder();
-            document = builder.parse(file);
+            document = XmlUtil.parse(file);
             facetedProjectElement = document.getDocumentElement();
 
             NodeList installedElements = document.getElementsByTagName(ELEMENT_INSTALLED);
@@ -170,31 +170,30 @@ public class WstProjectFacet {
             return;
         }
 
-        BufferedOutputStream os = null;
         try {
-            os = new BufferedOutputStream(new FileOutputStream(facetCoreFile));
+            ByteArrayOutputStream os = new ByteArrayOutputStream(1024);
             writeDocument(os);
-            os.flush();
-            Logger.info("facet core file wrote : " + facetCoreFile.getAbsolutePath());
+            if (AtomicFileUtil.writeIfChanged(facetCoreFile, os.toByteArray())) {
+                Logger.info("facet core file wrote : " + facetCoreFile.getAbsolutePath());
+            } else {
+                Logger.info("facet core file  is not changed.");
+            }
         } catch (IOException ex) {
             Logger.error(ex.getLocalizedMessage(), ex);
-        } finally {
-            IOUtils.closeQuietly(os);
         }
     }
 
-    private void writeDocument(OutputStream out) {
-        TransformerFactory factory = TransformerFactory.newInstance();
-        try {
-            Transformer transformer = factory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xalan}indent-amount", "2");
-            Source source = new DOMSource(document);
-            Result result = new StreamResult(out);
-            transformer.transform(source, result);
-        } catch (Exception ex) {
-            throw new PluginRuntimeException(ex);
-        }
+    private void writeDocument(OutputStream out) throws IOException {
+        XmlUtil.write(document, out);
+    }
+
+    /**
+     * Returns the project facet file.
+     *
+     * @return {@code org.eclipse.wst.common.project.facet.core.xml} file
+     */
+    public File getFile() {
+        return facetCoreFile;
     }
 
     @Override
@@ -53,6 +53,24 @@ public class ArtifactResolutionRuntimeException extends RuntimeException {
         this.artifactResolutionResult = result;
     }
 
+    /**
+     * Constructs a new {@link ArtifactResolutionRuntimeException} with
+     * specified detail message, {@link ArtifactResolutionResult} and nested
+     * {@link Throwable}.
+     *
+     * @param message
+     *        the error message
+     * @param result
+     *        the ArtifactResolutionResult which describe result of artifact
+     *        resolution
+     * @param cause
+     *        the exception or error that caused this exception to be thrown
+     */
+    public ArtifactResolutionRuntimeException(String message, ArtifactResolutionResult result, Throwable cause) {
+        super(message, cause);
+        this.artifactResolutionResult = result;
+    }
+
     /**
      * Returns this exception's {@link ArtifactResolutionResult}
      *
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parsed file name of an artifact.<br />
+ * The file name is assumed to be
+ * {@code <artifactId>-<version>[-<classifier>].<type>}. The version starts at
+ * the first hyphen which is followed by a dotted numeric part such as
+ * {@code -1.0}. If there is no such part, it starts at the first hyphen which
+ * is followed by a numeric part such as {@code -2-SNAPSHOT}.<br />
+ * Because an artifact id may also contain such a part, as
+ * {@code log4j-1.2-api-2.0.jar} does, {@link #parseAll(String)} returns every
+ * possible split of the file name.
+ *
+ * @author y-komori
+ */
+public final class ArtifactFileName {
+    private final String artifactId;
+
+    private final String version;
+
+    private final String type;
+
+    private ArtifactFileName(String artifactId, String version, String type) {
+        this.artifactId = artifactId;
+        this.version = version;
+        this.type = type;
+    }
+
+    /**
+     * Parses the file name of the specified path.
+     *
+     * @param path
+     *        path separated by {@code /}, or file name
+     * @return {@link ArtifactFileName}, or {@code null} if the file name is not
+     *         versioned
+     */
+    public static ArtifactFileName parse(String path) {
+        int nameStart = path.lastIndexOf('/') + 1;
+        int typeStart = path.lastIndexOf('.');
+        if (typeStart <= nameStart || typeStart == path.length() - 1) {
+            return null;
+        }
+
+        int versionStart = findVersionStart(path, nameStart, typeStart, true);
+        if (versionStart < 0) {
+            versionStart = findVersionStart(path, nameStart, typeStart, false);
+        }
+        if (versionStart < 0) {
+            return null;
+        }
+        return new ArtifactFileName(path.substring(nameStart, versionStart - 1), path.substring(versionStart,
+                typeStart), path.substring(typeStart + 1));
+    }
+
+    /**
+     * Parses the file name of the specified path, and returns every possible
+     * split into the artifact id and the version. A split is made at every
+     * hyphen which is followed by a digit. The first element is the split
+     * returned by {@link #parse(String)}.
+     *
+     * @param path
+     *        path separated by {@code /}, or file name
+     * @return list of {@link ArtifactFileName}, which is empty if the file
+     *         name is not versioned
+     */
+    public static List<ArtifactFileName> parseAll(String path) {
+        List<ArtifactFileName> result = new ArrayList<ArtifactFileName>(2);
+        ArtifactFileName preferred = parse(path);
+        if (preferred == null) {
+            return result;
+        }
+        result.add(preferred);
+
+        int nameStart = path.lastIndexOf('/') + 1;
+        int typeStart = path.lastIndexOf('.');
+        String type = path.substring(typeStart + 1);
+        for (int i = nameStart + 1; i < typeStart - 1; i++) {
+            if (path.charAt(i) == '-' && Character.isDigit(path.charAt(i + 1))
+                    && i - nameStart != preferred.artifactId.length()) {
+                result.add(new ArtifactFileName(path.substring(nameStart, i), path.substring(i + 1, typeStart), type));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the key which identifies an artifact regardless of its version.
+     *
+     * @param artifactId
+     *        artifact id
+     * @param type
+     *        type
+     * @return version independent key
+     */
+    public static String toVersionIndependentKey(String artifactId, String type) {
+        return artifactId + ":" + type;
+    }
+
+    private static int findVersionStart(String path, int nameStart, int typeStart, boolean dotted) {
+        for (int i = nameStart + 1; i < typeStart - 1; i++) {
+            if (path.charAt(i) == '-' && isVersionStart(path, i + 1, typeStart, dotted)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the numeric part starting at {@code start} is terminated by
+     * {@code .}, or by {@code -} or the end of the version if not
+     * {@code dotted}.
+     */
+    private static boolean isVersionStart(String path, int start, int end, boolean dotted) {
+        int i = start;
+        while (i < end && Character.isDigit(path.charAt(i))) {
+            i++;
+        }
+        if (i == start) {
+            return false;
+        }
+        if (i == end) {
+            return !dotted;
+        }
+        char c = path.charAt(i);
+        return dotted ? c == '.' : c == '-';
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getVersionIndependentKey() {
+        return toVersionIndependentKey(artifactId, type);
+    }
+
+    @Override
+    public String toString() {
+        return artifactId + "-" + version + "." + type;
+    }
+}
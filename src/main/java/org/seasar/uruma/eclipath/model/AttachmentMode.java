@@ -0,0 +1,61 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.model;
+
+/**
+ * How source and javadoc artifacts are resolved.
+ *
+ * @author y-komori
+ */
+public enum AttachmentMode {
+    EAGER("eager"), LAZY("lazy");
+
+    private String name;
+
+    private AttachmentMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Provide representation of configuration.
+     *
+     * @return configuration name
+     */
+    public String confName() {
+        return name;
+    }
+
+    /**
+     * Returns the mode which has the specified configuration name.
+     *
+     * @param confName
+     *        configuration name
+     * @return {@link AttachmentMode}, or {@code null} if not found
+     */
+    public static AttachmentMode fromConfName(String confName) {
+        for (AttachmentMode mode : values()) {
+            if (mode.name.equals(confName)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
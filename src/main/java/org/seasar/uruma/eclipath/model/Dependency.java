@@ -41,6 +41,23 @@ public interface Dependency {
 
     public String getJavadocPath();
 
+    /**
+     * Returns the path of the source artifact even if it is not resolved yet.
+     *
+     * @return expected source path, or {@code null} if no source artifact is
+     *         set
+     */
+    public String getExpectedSourcePath();
+
+    /**
+     * Returns the location of the javadoc artifact even if it is not resolved
+     * yet.
+     *
+     * @return expected javadoc location, or {@code null} if no javadoc
+     *         artifact is set
+     */
+    public String getExpectedJavadocPath();
+
     public File copyLibraryArtifact() throws IOException;
 
     public File copySourceArtifact() throws IOException;
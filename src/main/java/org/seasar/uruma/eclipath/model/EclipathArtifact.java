@@ -18,7 +18,6 @@ package org.seasar.uruma.eclipath.model;
 import static org.seasar.uruma.eclipath.Constants.*;
 
 import java.io.File;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.artifact.Artifact;
@@ -130,13 +129,15 @@ public class EclipathArtifact {
         return buf.toString();
     }
 
-    public Pattern getVersionIndependentFileNamePattern() {
-        StringBuilder regex = new StringBuilder();
-        regex.append(".*/");
-        regex.append(artifact.getArtifactId().replace(".", "\\."));
-        regex.append("-[0-9]+\\..+\\.");
-        regex.append(artifact.getType());
-        return Pattern.compile(regex.toString());
+    /**
+     * Returns the key which identifies this artifact regardless of its
+     * version. The key consists of the artifact id and the type.
+     *
+     * @return version independent key
+     * @see ArtifactFileName#getVersionIndependentKey()
+     */
+    public String getVersionIndependentKey() {
+        return ArtifactFileName.toVersionIndependentKey(artifact.getArtifactId(), artifact.getType());
     }
 
     public Artifact getArtifact() {
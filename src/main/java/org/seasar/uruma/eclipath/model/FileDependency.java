@@ -21,8 +21,12 @@ import static org.seasar.uruma.eclipath.util.PathUtil.*;
 import java.io.File;
 import java.io.IOException;
 
-import org.apache.commons.io.FileUtils;
+import org.seasar.uruma.eclipath.LibraryManifest;
+import org.seasar.uruma.eclipath.LibraryManifests;
 import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.report.BuildReport;
+import org.seasar.uruma.eclipath.report.Counter;
+import org.seasar.uruma.eclipath.util.MaterializationUtil;
 
 /**
  * @author y-komori
@@ -40,9 +44,21 @@ public class FileDependency extends AbstractDependency {
 
     private final File javadocDir;
 
+    private final MaterializationStrategy materializationStrategy;
+
+    private BuildReport buildReport;
+
+    private LibraryManifests libraryManifests;
+
     public FileDependency(EclipathArtifact artifact, File projectDir, String libDir) {
+        this(artifact, projectDir, libDir, MaterializationStrategy.COPY);
+    }
+
+    public FileDependency(EclipathArtifact artifact, File projectDir, String libDir,
+            MaterializationStrategy materializationStrategy) {
         super(artifact);
         this.projectDir = projectDir;
+        this.materializationStrategy = materializationStrategy;
         String path = normalizePath(projectDir.getAbsolutePath()) + "/" + libDir;
         this.libDir = new File(path);
         this.sourceDir = new File(path + "/" + SOURCES_PREFIX);
@@ -58,8 +74,7 @@ public class FileDependency extends AbstractDependency {
     @Override
     public String getSourcePath() {
         if (sourceArtifact != null && sourceArtifact.isResolved()) {
-            String parent = normalizePath(getRelativePath(projectDir, sourceDir));
-            return parent + "/" + sourceArtifact.getFileName();
+            return getExpectedSourcePath();
         } else {
             return null;
         }
@@ -68,6 +83,25 @@ public class FileDependency extends AbstractDependency {
     @Override
     public String getJavadocPath() {
         if (javadocArtifact != null && javadocArtifact.isResolved()) {
+            return getExpectedJavadocPath();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public String getExpectedSourcePath() {
+        if (sourceArtifact != null) {
+            String parent = normalizePath(getRelativePath(projectDir, sourceDir));
+            return parent + "/" + sourceArtifact.getFileName();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public String getExpectedJavadocPath() {
+        if (javadocArtifact != null) {
             String path = "jar:platform:/resource/";
             path += projectDir.getName();
             path += "/";
@@ -103,13 +137,55 @@ public class FileDependency extends AbstractDependency {
 
         File srcFile = artifact.getFile();
         File destFile = new File(toDir.getAbsolutePath() + SEP + srcFile.getName());
-        if (!destFile.exists() || srcFile.lastModified() > destFile.lastModified()) {
-            FileUtils.copyFile(srcFile, destFile, true);
-            Logger.info("Dependency copied to " + destFile.getAbsolutePath());
+        LibraryManifest manifest = libraryManifests != null ? libraryManifests.getManifest(toDir) : null;
+        if (manifest == null || !manifest.isUpToDate(srcFile, destFile)) {
+            MaterializationStrategy used = MaterializationUtil.materialize(srcFile, destFile,
+                    materializationStrategy);
+            if (manifest != null) {
+                manifest.update(srcFile, destFile);
+            }
+            Logger.info("Dependency copied to " + destFile.getAbsolutePath() + " (" + used + ")");
+            if (buildReport != null) {
+                buildReport.increment(Counter.ARTIFACTS_COPIED);
+                buildReport.increment(getCounter(used));
+                if (used == MaterializationStrategy.COPY) {
+                    buildReport.add(Counter.BYTES_COPIED, srcFile.length());
+                }
+            }
+        } else if (buildReport != null) {
+            buildReport.increment(Counter.COPIES_SKIPPED);
         }
         return destFile;
     }
 
+    private Counter getCounter(MaterializationStrategy strategy) {
+        switch (strategy) {
+        case HARDLINK:
+            return Counter.HARD_LINKS;
+        case SYMLINK:
+            return Counter.SYMBOLIC_LINKS;
+        case REFLINK:
+            return Counter.REFLINKS;
+        default:
+            return Counter.FILES_COPIED;
+        }
+    }
+
+    public void setBuildReport(BuildReport buildReport) {
+        this.buildReport = buildReport;
+    }
+
+    /**
+     * Sets the manifests used to skip files which are up to date. If not set,
+     * files are always materialized.
+     *
+     * @param libraryManifests
+     *        library manifests
+     */
+    public void setLibraryManifests(LibraryManifests libraryManifests) {
+        this.libraryManifests = libraryManifests;
+    }
+
     @Override
     public ClasspathKind getClasspathKind() {
         return ClasspathKind.LIB;
@@ -51,6 +51,22 @@ public class M2Dependency extends AbstractDependency {
     @Override
     public String getSourcePath() {
         if (sourceArtifact != null && sourceArtifact.isResolved()) {
+            return getExpectedSourcePath();
+        }
+        return null;
+    }
+
+    @Override
+    public String getJavadocPath() {
+        if (javadocArtifact != null && javadocArtifact.isResolved()) {
+            return getExpectedJavadocPath();
+        }
+        return null;
+    }
+
+    @Override
+    public String getExpectedSourcePath() {
+        if (sourceArtifact != null && sourceArtifact.getFile() != null) {
             File srcFile = sourceArtifact.getFile();
             String srcPath = WorkspaceConfigurator.M2_REPO + "/" + getRelativePath(m2repoFile, srcFile);
             return srcPath;
@@ -59,8 +75,8 @@ public class M2Dependency extends AbstractDependency {
     }
 
     @Override
-    public String getJavadocPath() {
-        if (javadocArtifact != null && javadocArtifact.isResolved()) {
+    public String getExpectedJavadocPath() {
+        if (javadocArtifact != null && javadocArtifact.getFile() != null) {
             File javadocFile = javadocArtifact.getFile();
             String javadocPath = "jar:file:/" + normalizePath(javadocFile.getAbsolutePath()) + "!/";
             return javadocPath;
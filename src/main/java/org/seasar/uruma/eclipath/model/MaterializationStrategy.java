@@ -0,0 +1,61 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.model;
+
+/**
+ * Strategy to place artifact files from the local repository into the project.
+ *
+ * @author y-komori
+ */
+public enum MaterializationStrategy {
+    COPY("copy"), HARDLINK("hardlink"), SYMLINK("symlink"), REFLINK("reflink"), AUTO("auto");
+
+    private String name;
+
+    private MaterializationStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Provide representation of configuration.
+     *
+     * @return configuration name
+     */
+    public String confName() {
+        return name;
+    }
+
+    /**
+     * Returns the strategy which has the specified configuration name.
+     *
+     * @param confName
+     *        configuration name
+     * @return {@link MaterializationStrategy}, or {@code null} if not found
+     */
+    public static MaterializationStrategy fromConfName(String confName) {
+        for (MaterializationStrategy strategy : values()) {
+            if (strategy.name.equals(confName)) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -20,13 +20,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.maven.artifact.Artifact;
+import org.seasar.uruma.eclipath.LibraryManifests;
 import org.seasar.uruma.eclipath.Logger;
 import org.seasar.uruma.eclipath.WorkspaceConfigurator;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
 import org.seasar.uruma.eclipath.model.FileDependency;
 import org.seasar.uruma.eclipath.model.M2Dependency;
+import org.seasar.uruma.eclipath.model.MaterializationStrategy;
 import org.seasar.uruma.eclipath.model.Scope;
+import org.seasar.uruma.eclipath.report.BuildReport;
 import org.seasar.uruma.eclipath.util.AssertionUtil;
 
 /**
@@ -43,6 +46,12 @@ public abstract class AbstractDependencyFactory implements DependencyFactory {
 
     protected List<String> excludeScopes = new ArrayList<String>();
 
+    protected MaterializationStrategy materializationStrategy = MaterializationStrategy.COPY;
+
+    protected BuildReport buildReport;
+
+    protected LibraryManifests libraryManifests;
+
     public AbstractDependencyFactory(File projectDir, WorkspaceConfigurator workspaceConfigurator, LibraryLayout layout) {
         AssertionUtil.assertNotNull("projectDir", projectDir);
         AssertionUtil.assertNotNull("workspaceConfigurator", workspaceConfigurator);
@@ -66,6 +75,22 @@ public abstract class AbstractDependencyFactory implements DependencyFactory {
         }
     }
 
+    @Override
+    public void setMaterializationStrategy(MaterializationStrategy materializationStrategy) {
+        AssertionUtil.assertNotNull("materializationStrategy", materializationStrategy);
+        this.materializationStrategy = materializationStrategy;
+    }
+
+    @Override
+    public void setBuildReport(BuildReport buildReport) {
+        this.buildReport = buildReport;
+    }
+
+    @Override
+    public void setLibraryManifests(LibraryManifests libraryManifests) {
+        this.libraryManifests = libraryManifests;
+    }
+
     protected boolean isExcluded(EclipathArtifact artifact) {
         for (String scope : excludeScopes) {
             if (scope.equals(artifact.scope().toString())) {
@@ -83,7 +108,10 @@ public abstract class AbstractDependencyFactory implements DependencyFactory {
     protected Dependency createFileDependency(EclipathArtifact artifact) {
         Scope scope = artifact.scope();
         String libDir = layout.getLibDir(scope);
-        return new FileDependency(artifact, projectDir, libDir);
+        FileDependency dependency = new FileDependency(artifact, projectDir, libDir, materializationStrategy);
+        dependency.setBuildReport(buildReport);
+        dependency.setLibraryManifests(libraryManifests);
+        return dependency;
     }
 
     protected Dependency createM2Dependency(EclipathArtifact artifact) {
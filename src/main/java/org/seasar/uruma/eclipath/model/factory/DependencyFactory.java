@@ -17,8 +17,11 @@ package org.seasar.uruma.eclipath.model.factory;
 
 import java.util.List;
 
+import org.seasar.uruma.eclipath.LibraryManifests;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.model.MaterializationStrategy;
+import org.seasar.uruma.eclipath.report.BuildReport;
 
 /**
  * @author y-komori
@@ -29,6 +32,12 @@ public interface DependencyFactory {
 
     public void addExcludeScopes(List<String> scopes);
 
+    public void setMaterializationStrategy(MaterializationStrategy materializationStrategy);
+
+    public void setBuildReport(BuildReport buildReport);
+
+    public void setLibraryManifests(LibraryManifests libraryManifests);
+
     public Dependency create(EclipathArtifact artifact);
 
 }
\ No newline at end of file
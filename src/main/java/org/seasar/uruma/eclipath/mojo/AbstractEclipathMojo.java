@@ -20,9 +20,12 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -34,21 +37,31 @@ import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.seasar.uruma.eclipath.ArtifactHelper;
+import org.seasar.uruma.eclipath.BuildContext;
+import org.seasar.uruma.eclipath.LibraryManifests;
 import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.NegativeResolutionCache;
+import org.seasar.uruma.eclipath.ParallelArtifactResolver;
 import org.seasar.uruma.eclipath.PluginInformation;
+import org.seasar.uruma.eclipath.ProjectLocations;
+import org.seasar.uruma.eclipath.RepositoryLatencyListener;
 import org.seasar.uruma.eclipath.WorkspaceConfigurator;
 import org.seasar.uruma.eclipath.classpath.CompilerConfiguration;
 import org.seasar.uruma.eclipath.classpath.WstProjectFacet;
-import org.seasar.uruma.eclipath.exception.ArtifactResolutionRuntimeException;
 import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.model.AttachmentMode;
 import org.seasar.uruma.eclipath.model.ClasspathPolicy;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.model.MaterializationStrategy;
 import org.seasar.uruma.eclipath.model.factory.DependencyFactory;
 import org.seasar.uruma.eclipath.model.factory.LibraryLayout;
 import org.seasar.uruma.eclipath.model.factory.LibraryLayoutFactory;
 import org.seasar.uruma.eclipath.model.factory.ProjectBasedDependencyFactory;
 import org.seasar.uruma.eclipath.model.factory.RepositoryBasedDependencyFactory;
+import org.seasar.uruma.eclipath.report.BuildReport;
+import org.seasar.uruma.eclipath.report.Counter;
+import org.seasar.uruma.eclipath.report.Phase;
 import org.seasar.uruma.eclipath.util.ProjectUtil;
 
 /**
@@ -66,9 +79,18 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
     @Component
     protected RepositorySystem repoSystem;
 
+    @Component
+    protected org.eclipse.aether.RepositorySystem aetherSystem;
+
     @Component
     protected ProjectDependenciesResolver projectDependenciesResolver;
 
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession session;
+
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    protected MojoExecution mojoExecution;
+
     @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
     protected RepositorySystemSession repoSession;
 
@@ -140,14 +162,66 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
     @Parameter(defaultValue = "8386")
     protected int refreshPort;
 
+    /**
+     * Number of threads which resolve library, source and javadoc artifacts
+     * concurrently. Artifacts are divided into the same number of batches.
+     */
+    @Parameter(defaultValue = "4")
+    protected int resolveThreads;
+
+    /**
+     * Hours during which source and javadoc artifacts that could not be found
+     * are not requested again. {@code 0} disables caching of missing
+     * artifacts.
+     */
+    @Parameter(defaultValue = "24")
+    protected int negativeCacheTtl;
+
+    /**
+     * How library files are placed into the project on the {@code project}
+     * policy.<br />
+     * Value must be either {@code copy}, {@code hardlink}, {@code symlink},
+     * {@code reflink} or {@code auto}. {@code auto} tries a hard link first.
+     * If a link can not be created, the file is copied. {@code reflink} is
+     * only supported on Linux. Notice that linked files share their contents
+     * with the local repository.
+     */
+    @Parameter(defaultValue = "copy")
+    protected String materialization;
+
+    /**
+     * How source and javadoc artifacts are resolved. Value must be either
+     * {@code eager} or {@code lazy}.<br />
+     * {@code lazy} doesn't download attachments. Attachments which already
+     * exist in the local repository are used, and the others are referred
+     * with their expected locations. Use the fetch-attachments goal to
+     * download them afterwards.
+     */
+    @Parameter(defaultValue = "eager")
+    protected String attachmentMode;
+
+    protected BuildContext buildContext;
+
     protected ClasspathPolicy classpathPolicy;
 
+    protected MaterializationStrategy materializationStrategy;
+
+    protected AttachmentMode attachments;
+
+    protected ProjectLocations projectLocations;
+
     protected File eclipseProjectDir;
 
     protected LibraryLayout libraryLayout;
 
     protected ArtifactHelper artifactHelper;
 
+    protected ParallelArtifactResolver artifactResolver;
+
+    protected NegativeResolutionCache negativeResolutionCache;
+
+    protected LibraryManifests libraryManifests;
+
     protected DependencyFactory dependencyFactory;
 
     protected WorkspaceConfigurator workspaceConfigurator;
@@ -158,13 +232,27 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
 
     protected WstProjectFacet wstProjectFacet;
 
+    protected BuildReport buildReport;
+
+    /**
+     * If false, parameters are logged only at debug level.
+     */
+    protected boolean verboseParameters = true;
+
+    /**
+     * Thread pool shared by the resolvers of all modules, or {@code null}.
+     */
+    protected ExecutorService resolveExecutor;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         try {
             Logger.initialize(getLog());
+            startReport();
             checkParameters();
             prepare();
             doExecute();
+            writeReport();
         } catch (PluginRuntimeException e) {
             Logger.error(getErrorMessage(e), e.getCause());
             throw new MojoExecutionException(e.getMessage(), e.getCause());
@@ -176,13 +264,40 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
 
     protected abstract void doExecute() throws MojoExecutionException, MojoFailureException;
 
+    /**
+     * Starts timers and counters of this execution.
+     */
+    protected void startReport() {
+        buildReport = new BuildReport(mojoExecution != null ? mojoExecution.getGoal() : getClass().getSimpleName());
+    }
+
+    /**
+     * Writes timers and counters to {@code target/eclipath/build-report.json}.
+     * The summary is also logged if {@link #isReportLogged()} returns
+     * {@code true}.
+     */
+    protected void writeReport() {
+        if (isReportLogged()) {
+            buildReport.log();
+        }
+        buildReport.write(new File(ProjectUtil.getWorkDir(project), BuildReport.REPORT_FILENAME), project.getId());
+    }
+
+    protected boolean isReportLogged() {
+        return false;
+    }
+
     protected void prepare() {
         LocalRepository localRepository = repoSession.getLocalRepository();
 
+        buildContext = BuildContext.get(session);
+        projectLocations = buildContext.getProjectLocations(project);
+
         // prepare WorkspaceConfigurator
-        workspaceConfigurator = new WorkspaceConfigurator(project);
-        workspaceConfigurator.loadConfiguration();
+        long start = buildReport.start();
+        workspaceConfigurator = buildContext.getWorkspaceConfigurator(projectLocations.getWorkspaceDir());
         workspaceConfigurator.setLocalRepositoryDir(localRepository.getBasedir());
+        buildReport.stop(Phase.WORKSPACE_PREFS, start);
 
         // prepare ArtifactHelper
         artifactHelper = new ArtifactHelper();
@@ -191,17 +306,34 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
         // TODO
         // artifactHelper.setLocalRepository(TODO);
         artifactHelper.setWorkspaceConfigurator(workspaceConfigurator);
+        artifactHelper.setAetherSystem(aetherSystem);
+        artifactHelper.setRepositorySession(repoSession);
+        artifactHelper.setRemoteProjectRepositories(remoteRepos);
+        negativeResolutionCache = buildContext.getNegativeResolutionCache(localRepository.getBasedir(),
+                negativeCacheTtl * 60L * 60L * 1000L);
+        artifactHelper.setNegativeResolutionCache(negativeResolutionCache);
+        libraryManifests = buildContext.getLibraryManifests(localRepository.getBasedir());
+        artifactHelper.setResolutionCache(buildContext.getResolutionCache());
+        artifactHelper.setBuildReport(buildReport);
+        artifactHelper.setTransferListener(new RepositoryLatencyListener(remoteRepos, buildReport));
+        artifactResolver = new ParallelArtifactResolver(artifactHelper, resolveThreads);
+        artifactResolver.setBuildReport(buildReport);
+        artifactResolver.setExecutor(resolveExecutor);
 
         // get Eclipse project directory
-        eclipseProjectDir = ProjectUtil.getProjectDir(project);
+        eclipseProjectDir = projectLocations.getProjectDir();
 
         // load compiler configuration
+        start = buildReport.start();
         compilerConfiguration = CompilerConfiguration.load(project);
+        buildReport.stop(Phase.COMPILER_CONFIGURATION, start);
         Logger.info(compilerConfiguration.toString());
 
         // load java project facet (if exists)
-        wstProjectFacet = new WstProjectFacet(eclipseProjectDir);
+        start = buildReport.start();
+        wstProjectFacet = new WstProjectFacet(projectLocations.getFacetFile());
         wstProjectFacet.load();
+        buildReport.stop(Phase.FACET, start);
         Logger.info(wstProjectFacet.toString());
 
         // prepare DeoendencyFactory
@@ -214,10 +346,13 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
         }
         dependencyFactory.addExcludeGroupIds(excludeGroupIds);
         dependencyFactory.addExcludeScopes(excludeScopes);
+        dependencyFactory.setMaterializationStrategy(materializationStrategy);
+        dependencyFactory.setBuildReport(buildReport);
+        dependencyFactory.setLibraryManifests(libraryManifests);
     }
 
     protected void checkParameters() {
-        Logger.info("[Version] " + pluginInformation.getVersion());
+        logParameter("[Version] " + pluginInformation.getVersion());
         if (ClasspathPolicy.REPOSITORY.confName().equals(policy)) {
             classpathPolicy = ClasspathPolicy.REPOSITORY;
         } else if (ClasspathPolicy.PROJECT.confName().equals(policy)) {
@@ -225,30 +360,93 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
         } else {
             throw new PluginRuntimeException("Parameter policy must be \"repository\" or \"project\".");
         }
-        Logger.info("[Parameter: policy]            " + classpathPolicy.name());
+        logParameter("[Parameter: policy]            " + classpathPolicy.name());
 
         libraryLayout = LibraryLayoutFactory.getLibraryLayout(layout);
         if (libraryLayout == null) {
             // Create layout from packaging.
             libraryLayout = LibraryLayoutFactory.getLibraryLayoutFromPackaging(project.getPackaging());
         }
-        Logger.info("[Parameter: layout]            " + libraryLayout.getName());
+        logParameter("[Parameter: layout]            " + libraryLayout.getName());
 
         if (excludeGroupIds == null) {
             excludeGroupIds = new ArrayList<String>();
         }
-        Logger.info("[Parameter: excludeGroupIds]   " + excludeGroupIds.toString());
+        logParameter("[Parameter: excludeGroupIds]   " + excludeGroupIds.toString());
 
         if (excludeScopes == null) {
             excludeScopes = new ArrayList<String>();
         }
-        Logger.info("[Parameter: excludeScopes]     " + excludeScopes.toString());
-        Logger.info("[Parameter: adjustJavaVersion] " + Boolean.toString(adjustJavaVersion));
-        Logger.info("[Parameter: downloadSources]   " + Boolean.toString(downloadSources));
-        Logger.info("[Parameter: downloadJavaddocs] " + Boolean.toString(downloadJavadocs));
-        Logger.info("[Parameter: autoRefresh]       " + Boolean.toString(autoRefresh));
-        Logger.info("[Parameter: refreshHost]       " + refreshHost);
-        Logger.info("[Parameter: refreshPort]       " + refreshPort);
+        logParameter("[Parameter: excludeScopes]     " + excludeScopes.toString());
+        logParameter("[Parameter: adjustJavaVersion] " + Boolean.toString(adjustJavaVersion));
+        logParameter("[Parameter: downloadSources]   " + Boolean.toString(downloadSources));
+        logParameter("[Parameter: downloadJavaddocs] " + Boolean.toString(downloadJavadocs));
+        logParameter("[Parameter: autoRefresh]       " + Boolean.toString(autoRefresh));
+        logParameter("[Parameter: refreshHost]       " + refreshHost);
+        logParameter("[Parameter: refreshPort]       " + refreshPort);
+
+        if (resolveThreads < 1) {
+            throw new PluginRuntimeException("Parameter resolveThreads must be greater than 0.");
+        }
+        logParameter("[Parameter: resolveThreads]    " + resolveThreads);
+        logParameter("[Parameter: negativeCacheTtl]  " + negativeCacheTtl);
+
+        materializationStrategy = MaterializationStrategy.fromConfName(materialization);
+        if (materializationStrategy == null) {
+            throw new PluginRuntimeException(
+                    "Parameter materialization must be \"copy\", \"hardlink\", \"symlink\", \"reflink\" or \"auto\".");
+        }
+        logParameter("[Parameter: materialization]   " + materializationStrategy.confName());
+
+        attachments = AttachmentMode.fromConfName(attachmentMode);
+        if (attachments == null) {
+            throw new PluginRuntimeException("Parameter attachmentMode must be \"eager\" or \"lazy\".");
+        }
+        logParameter("[Parameter: attachmentMode]    " + attachments.confName());
+    }
+
+    protected void logParameter(String message) {
+        if (verboseParameters) {
+            Logger.info(message);
+        } else {
+            Logger.debug(message);
+        }
+    }
+
+    /**
+     * Copies components and parameters of the specified mojo to this mojo.<br />
+     * State derived from the parameters is not copied, and is initialized by
+     * {@link #checkParameters()} and {@link #prepare()} of this mojo.
+     *
+     * @param source
+     *        configured mojo
+     * @param module
+     *        project which this mojo processes
+     */
+    protected void copyConfiguration(AbstractEclipathMojo source, MavenProject module) {
+        setLog(source.getLog());
+        project = module;
+        repoSystem = source.repoSystem;
+        aetherSystem = source.aetherSystem;
+        projectDependenciesResolver = source.projectDependenciesResolver;
+        session = source.session;
+        mojoExecution = source.mojoExecution;
+        repoSession = source.repoSession;
+        remoteRepos = module.getRemoteProjectRepositories();
+        policy = source.policy;
+        excludeGroupIds = source.excludeGroupIds;
+        excludeScopes = source.excludeScopes;
+        layout = source.layout;
+        adjustJavaVersion = source.adjustJavaVersion;
+        downloadSources = source.downloadSources;
+        downloadJavadocs = source.downloadJavadocs;
+        autoRefresh = source.autoRefresh;
+        refreshHost = source.refreshHost;
+        refreshPort = source.refreshPort;
+        resolveThreads = source.resolveThreads;
+        negativeCacheTtl = source.negativeCacheTtl;
+        materialization = source.materialization;
+        attachmentMode = source.attachmentMode;
     }
 
     protected Set<Artifact> getArtifacts() {
@@ -263,44 +461,97 @@ public abstract class AbstractEclipathMojo extends AbstractMojo {
         return result;
     }
 
+    /**
+     * Creates dependencies without resolving them. Only the file names of the
+     * artifacts are needed to determine the expected files, so that no
+     * repository is accessed.
+     *
+     * @param artifacts
+     *        artifacts of the project
+     * @return list of {@link Dependency}
+     */
+    protected List<Dependency> createDependencies(Set<EclipathArtifact> artifacts) {
+        List<Dependency> dependencies = new ArrayList<Dependency>(artifacts.size());
+        for (EclipathArtifact artifact : artifacts) {
+            Dependency dependency = dependencyFactory.create(artifact);
+            if (downloadSources) {
+                dependency.setSourceArtifact(artifactHelper.createSourceArtifact(artifact));
+            }
+            if (downloadJavadocs) {
+                dependency.setJavadocArtifact(artifactHelper.createJavadocArtifact(artifact));
+            }
+            dependencies.add(dependency);
+        }
+        return dependencies;
+    }
+
     protected List<Dependency> resolveArtifacts(Set<EclipathArtifact> artifacts) {
         return resolveArtifacts(artifacts, false);
     }
 
     protected List<Dependency> resolveArtifacts(Set<EclipathArtifact> artifacts, boolean forceResolve) {
-        List<Dependency> dependencies = new ArrayList<Dependency>(artifacts.size());
+        return resolveArtifacts(artifacts, forceResolve, attachments);
+    }
+
+    protected List<Dependency> resolveArtifacts(Set<EclipathArtifact> artifacts, boolean forceResolve,
+            AttachmentMode mode) {
+        long start = buildReport.start();
 
+        // Build dependency objects
+        List<Dependency> dependencies = new ArrayList<Dependency>(artifacts.size());
         for (EclipathArtifact artifact : artifacts) {
-            // Build dependency objects
-            Dependency dependency = dependencyFactory.create(artifact);
-            dependencies.add(dependency);
+            dependencies.add(dependencyFactory.create(artifact));
+        }
+
+        if (mode == AttachmentMode.LAZY) {
+            // Resolve library artifacts, and only locate attachments
+            artifactResolver.resolve(dependencies, false, false, forceResolve);
+            locateAttachments(dependencies);
+        } else {
+            // Resolve library, source and javadoc artifacts
+            artifactResolver.resolve(dependencies, downloadSources, downloadJavadocs, forceResolve);
+        }
+        negativeResolutionCache.store();
+        buildReport.stop(Phase.RESOLVE, start);
+
+        return dependencies;
+    }
 
-            // Get artifact
+    /**
+     * Sets attachments which exist in the local repository or may be fetched
+     * later. Attachments which are known as not available are not set, so that
+     * they are neither referred from {@code .classpath} nor queued.
+     */
+    private void locateAttachments(List<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            EclipathArtifact artifact = dependency.getLibraryArtifact();
             if (!artifact.isResolved()) {
-                try {
-                    artifactHelper.resolve(artifact, true, forceResolve);
-                } catch (ArtifactResolutionRuntimeException ex) {
-                    Logger.error(ex.getLocalizedMessage(), ex.getCause());
-                    continue;
-                }
+                continue;
             }
-
-            // Create source artifact
             if (downloadSources) {
                 EclipathArtifact srcArtifact = artifactHelper.createSourceArtifact(artifact);
-                artifactHelper.resolve(srcArtifact, false, forceResolve);
-                dependency.setSourceArtifact(srcArtifact);
+                if (locateAttachment(srcArtifact)) {
+                    dependency.setSourceArtifact(srcArtifact);
+                }
             }
-
-            // Create Javadoc artifact
             if (downloadJavadocs) {
                 EclipathArtifact javadocArtifact = artifactHelper.createJavadocArtifact(artifact);
-                artifactHelper.resolve(javadocArtifact, false, forceResolve);
-                dependency.setJavadocArtifact(javadocArtifact);
+                if (locateAttachment(javadocArtifact)) {
+                    dependency.setJavadocArtifact(javadocArtifact);
+                }
             }
         }
+    }
 
-        return dependencies;
+    private boolean locateAttachment(EclipathArtifact attachment) {
+        if (artifactHelper.locate(attachment)) {
+            return true;
+        }
+        if (negativeResolutionCache.isNotAvailable(attachment)) {
+            buildReport.increment(Counter.NEGATIVE_CACHE_HITS);
+            return false;
+        }
+        return true;
     }
 
     private String getErrorMessage(Throwable t) {
@@ -18,71 +18,111 @@ package org.seasar.uruma.eclipath.mojo;
 import static org.seasar.uruma.eclipath.util.PathUtil.*;
 
 import java.io.File;
-import java.io.FileFilter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.seasar.uruma.eclipath.LibraryDirectoryScanner;
 import org.seasar.uruma.eclipath.Logger;
-import org.seasar.uruma.eclipath.classpath.EclipseClasspath;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.FileDependency;
+import org.seasar.uruma.eclipath.report.CleanReport;
+import org.seasar.uruma.eclipath.util.ProjectUtil;
 
 /**
  * @author y-komori
  */
-@Mojo(name = "check-clean", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyResolution = ResolutionScope.TEST)
+@Mojo(name = "check-clean", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyCollection = ResolutionScope.TEST)
 public class CheckCleanMojo extends AbstractEclipathMojo {
     @Override
     protected void doExecute() throws MojoExecutionException, MojoFailureException {
-        // Load ".classpath" file
-        EclipseClasspath eclipseClasspath = new EclipseClasspath(eclipseProjectDir);
-        eclipseClasspath.load();
-
         // Get existing files
-        List<File> existingFiles = getExistingFiles(getLibDirectories());
-        Map<String, File> existingFileMap = new HashMap<String, File>(existingFiles.size());
-        for (File file : existingFiles) {
-            existingFileMap.put(file.getAbsolutePath(), file);
-        }
+        List<String> existingFiles = new LibraryDirectoryScanner().scan(getLibDirectories());
+
+        // Get expected files
+        List<Dependency> dependencies = createDependencies(getEclipathArtifacts());
+        List<String> expectedFiles = getExpectedFiles(dependencies);
 
         // Check existing files
-        List<Dependency> dependencies = resolveArtifacts(getEclipathArtifacts());
+        List<File> unexpectedFiles = reconcile(existingFiles, expectedFiles);
+        CleanReport report = new CleanReport(isDryRun());
+        clean(unexpectedFiles, report);
+        report.log();
+        report.write(new File(ProjectUtil.getWorkDir(project), CleanReport.REPORT_FILENAME), project.getId());
+    }
+
+    protected boolean isDryRun() {
+        return true;
+    }
+
+    protected List<String> getExpectedFiles(List<Dependency> dependencies) {
+        List<String> result = new ArrayList<String>(dependencies.size() * 3);
         for (Dependency dependency : dependencies) {
             if (dependency instanceof FileDependency) {
                 FileDependency fileDependency = (FileDependency) dependency;
-                reconceile(existingFileMap, fileDependency.getLibraryFile());
-                reconceile(existingFileMap, fileDependency.getSourceFile());
-                reconceile(existingFileMap, fileDependency.getJavadocFile());
+                addPath(result, fileDependency.getLibraryFile());
+                addPath(result, fileDependency.getSourceFile());
+                addPath(result, fileDependency.getJavadocFile());
             }
         }
-
-        for (File dealingFile : existingFileMap.values()) {
-            deal(dealingFile);
-        }
+        Collections.sort(result);
+        return result;
     }
 
-    protected void reconceile(Map<String, File> existingFileMap, File file) {
-        if (file == null) {
-            return;
+    private void addPath(List<String> paths, File file) {
+        if (file != null) {
+            paths.add(file.getAbsolutePath());
         }
+    }
 
-        String path = file.getAbsolutePath();
-        if (existingFileMap.containsKey(path)) {
-            existingFileMap.remove(path);
+    /**
+     * Returns existing files which are not expected. Both lists must be
+     * sorted.
+     *
+     * @param existingFiles
+     *        sorted paths of existing files
+     * @param expectedFiles
+     *        sorted paths of expected files
+     * @return files to be deleted
+     */
+    protected List<File> reconcile(List<String> existingFiles, List<String> expectedFiles) {
+        List<File> result = new ArrayList<File>();
+        int index = 0;
+        int size = expectedFiles.size();
+        String previous = null;
+        for (String path : existingFiles) {
+            if (path.equals(previous)) {
+                continue;
+            }
+            previous = path;
+            while (index < size && expectedFiles.get(index).compareTo(path) < 0) {
+                index++;
+            }
+            if (index == size || !expectedFiles.get(index).equals(path)) {
+                result.add(new File(path));
+            }
         }
+        return result;
     }
 
-    protected void deal(File file) {
-        Logger.info("Will be deleted. : " + file.getAbsolutePath());
+    /**
+     * Deals with files to be deleted. This implementation only reports them.
+     *
+     * @param files
+     *        files to be deleted
+     * @param report
+     *        report to record the files
+     */
+    protected void clean(List<File> files, CleanReport report) {
+        for (File file : files) {
+            Logger.info("Will be deleted. : " + file.getAbsolutePath());
+            report.addRemovedFile(file, file.length());
+        }
     }
 
     protected List<File> getLibDirectories() {
@@ -96,16 +136,4 @@ public class CheckCleanMojo extends AbstractEclipathMojo {
         }
         return result;
     }
-
-    protected List<File> getExistingFiles(List<File> dirs) {
-        List<File> result = new ArrayList<File>();
-        for (File dir : dirs) {
-            if (!dir.exists() || !dir.isDirectory()) {
-                break;
-            }
-            File[] files = dir.listFiles((FileFilter) (new SuffixFileFilter(".jar")));
-            Collections.addAll(result, files);
-        }
-        return result;
-    }
 }
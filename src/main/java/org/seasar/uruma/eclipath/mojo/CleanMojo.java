@@ -16,33 +16,104 @@
 package org.seasar.uruma.eclipath.mojo;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.report.CleanReport;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
 
 /**
+ * Deletes files in library directories which are not dependencies of the
+ * project.<br />
+ * Files are grouped by their directory, and each directory is cleaned in its
+ * own thread. A directory is deleted if it is empty after all of its files are
+ * deleted.
+ *
  * @author y-komori
  */
-@Mojo(name = "clean", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyResolution = ResolutionScope.TEST)
+@Mojo(name = "clean", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyCollection = ResolutionScope.TEST)
 public class CleanMojo extends CheckCleanMojo {
+    protected static final int MAX_THREADS = 4;
+
+    @Override
+    protected boolean isDryRun() {
+        return false;
+    }
 
     /*
-     * @see org.seasar.uruma.eclipath.mojo.CheckCleanMojo#deal(java.io.File)
+     * @see org.seasar.uruma.eclipath.mojo.CheckCleanMojo#clean(java.util.List,
+     * org.seasar.uruma.eclipath.report.CleanReport)
      */
     @Override
-    protected void deal(File file) {
-        File parentDir = file.getParentFile();
-        deleteFile(file);
-        deleteDir(parentDir);
+    protected void clean(List<File> files, final CleanReport report) {
+        Map<File, List<File>> groups = groupByDirectory(files);
+        int threads = Math.min(groups.size(), MAX_THREADS);
+        if (threads <= 1) {
+            for (Map.Entry<File, List<File>> entry : groups.entrySet()) {
+                cleanDirectory(entry.getKey(), entry.getValue(), report);
+            }
+            return;
+        }
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(groups.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new NamedThreadFactory("clean"));
+        try {
+            for (final Map.Entry<File, List<File>> entry : groups.entrySet()) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        cleanDirectory(entry.getKey(), entry.getValue(), report);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                waitFor(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    protected void deleteFile(File file) {
+    protected Map<File, List<File>> groupByDirectory(List<File> files) {
+        Map<File, List<File>> groups = new LinkedHashMap<File, List<File>>();
+        for (File file : files) {
+            File dir = file.getParentFile();
+            List<File> group = groups.get(dir);
+            if (group == null) {
+                group = new ArrayList<File>();
+                groups.put(dir, group);
+            }
+            group.add(file);
+        }
+        return groups;
+    }
+
+    protected void cleanDirectory(File dir, List<File> files, CleanReport report) {
+        for (File file : files) {
+            deleteFile(file, report);
+        }
+        deleteDir(dir, report);
+    }
+
+    protected void deleteFile(File file, CleanReport report) {
+        long length = file.length();
         if (file.delete()) {
             Logger.info("File deleted : " + file.getAbsolutePath());
+            report.addRemovedFile(file, length);
         } else {
             Logger.warn("Failed to delete file : " + file.getAbsolutePath());
+            report.addFailedFile(file);
         }
     }
 
@@ -51,14 +122,33 @@ public class CleanMojo extends CheckCleanMojo {
      *
      * @param dir
      *        target directory
+     * @param report
+     *        report to record the directory
      */
-    protected void deleteDir(File dir) {
-        if (dir.listFiles().length == 0) {
+    protected void deleteDir(File dir, CleanReport report) {
+        String[] children = dir.list();
+        if (children != null && children.length == 0) {
             if (dir.delete()) {
                 Logger.info("Directory deleted : " + dir.getAbsolutePath());
+                report.addRemovedDir(dir);
             } else {
                 Logger.info("Failed to delete directory : " + dir.getAbsolutePath());
             }
         }
     }
+
+    private void waitFor(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Clean is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PluginRuntimeException(cause);
+        }
+    }
 }
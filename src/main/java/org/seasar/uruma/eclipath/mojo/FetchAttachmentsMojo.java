@@ -0,0 +1,68 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.mojo;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.model.AttachmentMode;
+import org.seasar.uruma.eclipath.model.Dependency;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * Downloads source and javadoc artifacts which are referred by the sync goal
+ * on the {@code lazy} attachment mode.<br />
+ * Attachments of the {@code project} policy are copied into the project. This
+ * goal doesn't modify {@code .classpath}, so it can run after the sync goal,
+ * even in a separate process.
+ *
+ * @author y-komori
+ */
+@Mojo(name = "fetch-attachments", requiresDependencyResolution = ResolutionScope.TEST)
+public class FetchAttachmentsMojo extends AbstractEclipathMojo {
+
+    @Override
+    protected void doExecute() throws MojoExecutionException, MojoFailureException {
+        List<Dependency> dependencies = resolveArtifacts(getEclipathArtifacts(), false, AttachmentMode.EAGER);
+
+        int fetched = 0;
+        for (Dependency dependency : dependencies) {
+            try {
+                if (downloadSources && isResolved(dependency.getSourceArtifact())) {
+                    dependency.copySourceArtifact();
+                    fetched++;
+                }
+                if (downloadJavadocs && isResolved(dependency.getJavadocArtifact())) {
+                    dependency.copyJavadocArtifact();
+                    fetched++;
+                }
+            } catch (IOException ex) {
+                Logger.warn("Failed to copy artifact. : ", ex);
+            }
+        }
+        libraryManifests.storeAll();
+        Logger.info(fetched + " attachments are available.");
+    }
+
+    private boolean isResolved(EclipathArtifact artifact) {
+        return artifact != null && artifact.isResolved();
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.mojo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.PrefetchQueue;
+import org.seasar.uruma.eclipath.PrefetchRequest;
+import org.seasar.uruma.eclipath.classpath.ClasspathEntry;
+import org.seasar.uruma.eclipath.classpath.EclipseClasspath;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.util.MaterializationUtil;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
+import org.w3c.dom.Element;
+
+/**
+ * Downloads source and javadoc artifacts queued by the sync goal on the
+ * {@code lazy} attachment mode.<br />
+ * Fetched attachments are copied into the project on the {@code project}
+ * policy, and the corresponding {@code .classpath} entries are patched.
+ * Attachments which don't exist in any repository are removed from the
+ * entries. Failed requests are retried later with exponential backoff.
+ * Attachments are resolved from the repositories of the current project.
+ *
+ * @author y-komori
+ */
+@Mojo(name = "prefetch", aggregator = true)
+public class PrefetchMojo extends AbstractEclipathMojo {
+    /**
+     * Number of attachments which are downloaded concurrently.
+     */
+    @Parameter(defaultValue = "2")
+    protected int prefetchThreads;
+
+    /**
+     * Maximum number of attempts for each attachment.
+     */
+    @Parameter(defaultValue = "5")
+    protected int prefetchMaxAttempts;
+
+    /**
+     * Delay in seconds before the first retry. The delay is doubled on every
+     * attempt.
+     */
+    @Parameter(defaultValue = "30")
+    protected int prefetchBackoff;
+
+    /**
+     * If true, keeps polling the queue until the process is terminated.
+     * Otherwise, exits when no request is ready.
+     */
+    @Parameter(defaultValue = "false")
+    protected boolean prefetchDaemon;
+
+    /**
+     * Polling interval in seconds on the daemon mode.
+     */
+    @Parameter(defaultValue = "60")
+    protected int prefetchPollInterval;
+
+    private PrefetchQueue queue;
+
+    @Override
+    protected void checkParameters() {
+        super.checkParameters();
+        if (prefetchThreads < 1) {
+            throw new PluginRuntimeException("Parameter prefetchThreads must be greater than 0.");
+        }
+        if (prefetchMaxAttempts < 1) {
+            throw new PluginRuntimeException("Parameter prefetchMaxAttempts must be greater than 0.");
+        }
+        logParameter("[Parameter: prefetchThreads]   " + prefetchThreads);
+        logParameter("[Parameter: prefetchDaemon]    " + prefetchDaemon);
+    }
+
+    @Override
+    protected void doExecute() throws MojoExecutionException, MojoFailureException {
+        queue = new PrefetchQueue(repoSession.getLocalRepository().getBasedir());
+        ExecutorService executor = Executors.newFixedThreadPool(prefetchThreads, new NamedThreadFactory("prefetch"));
+        try {
+            while (true) {
+                List<PrefetchRequest> ready = getReadyRequests();
+                if (!ready.isEmpty()) {
+                    process(executor, ready);
+                } else if (prefetchDaemon) {
+                    sleep(prefetchPollInterval * 1000L);
+                } else {
+                    int waiting = queue.getRequests().size();
+                    Logger.info("Prefetch queue is drained." + (waiting > 0 ? " " + waiting
+                            + " attachments are waiting for retry." : ""));
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<PrefetchRequest> getReadyRequests() {
+        long now = System.currentTimeMillis();
+        List<PrefetchRequest> ready = new ArrayList<PrefetchRequest>();
+        for (PrefetchRequest request : queue.getRequests()) {
+            if (request.isReady(now)) {
+                ready.add(request);
+            }
+        }
+        return ready;
+    }
+
+    private void process(ExecutorService executor, List<PrefetchRequest> requests) {
+        List<Future<ArtifactResult>> futures = new ArrayList<Future<ArtifactResult>>(requests.size());
+        for (PrefetchRequest request : requests) {
+            futures.add(executor.submit(new FetchTask(request)));
+        }
+
+        List<PrefetchRequest> finished = new ArrayList<PrefetchRequest>();
+        List<PrefetchRequest> postponed = new ArrayList<PrefetchRequest>();
+        Map<String, Map<PrefetchRequest, String>> patches = new LinkedHashMap<String, Map<PrefetchRequest, String>>();
+        for (int i = 0; i < requests.size(); i++) {
+            PrefetchRequest request = requests.get(i);
+            ArtifactResult result = getResult(futures.get(i));
+            if (result != null && result.isResolved()) {
+                if (materialize(request, result.getArtifact().getFile())) {
+                    finished.add(request);
+                    addPatch(patches, request, request.getAttachmentPath());
+                    continue;
+                }
+            } else if (result != null && artifactHelper.isMissing(result)) {
+                Logger.info("Attachment is not available. : " + request);
+                finished.add(request);
+                addPatch(patches, request, null);
+                continue;
+            }
+
+            request.retryLater(prefetchBackoff * 1000L);
+            if (request.getAttempts() >= prefetchMaxAttempts) {
+                Logger.warn("Gave up fetching attachment. : " + request);
+                finished.add(request);
+                addPatch(patches, request, null);
+            } else {
+                postponed.add(request);
+            }
+        }
+
+        queue.update(finished, postponed);
+        libraryManifests.storeAll();
+        negativeResolutionCache.store();
+        for (Map.Entry<String, Map<PrefetchRequest, String>> entry : patches.entrySet()) {
+            patchClasspath(new File(entry.getKey()), entry.getValue());
+        }
+    }
+
+    private ArtifactResult getResult(Future<ArtifactResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Prefetch is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Logger.warn("Failed to fetch attachment. : ", ex.getCause());
+            return null;
+        }
+    }
+
+    private boolean materialize(PrefetchRequest request, File file) {
+        if (request.getDestination() == null) {
+            return true;
+        }
+        File destFile = new File(request.getDestination());
+        try {
+            MaterializationUtil.materialize(file, destFile, materializationStrategy);
+            libraryManifests.getManifest(destFile.getParentFile()).update(file, destFile);
+            Logger.info("Dependency copied to " + destFile.getAbsolutePath());
+            return true;
+        } catch (IOException ex) {
+            Logger.warn("Failed to copy artifact. : ", ex);
+            return false;
+        }
+    }
+
+    private void addPatch(Map<String, Map<PrefetchRequest, String>> patches, PrefetchRequest request, String value) {
+        Map<PrefetchRequest, String> projectPatches = patches.get(request.getProjectDir());
+        if (projectPatches == null) {
+            projectPatches = new LinkedHashMap<PrefetchRequest, String>();
+            patches.put(request.getProjectDir(), projectPatches);
+        }
+        projectPatches.put(request, value);
+    }
+
+    /**
+     * Writes fetched attachments into {@code .classpath}, and removes missing
+     * ones if they still refer to the expected location.
+     */
+    private void patchClasspath(File projectDir, Map<PrefetchRequest, String> projectPatches) {
+        EclipseClasspath eclipseClasspath = new EclipseClasspath(projectDir);
+        if (!eclipseClasspath.getClasspathFile().exists()) {
+            return;
+        }
+        eclipseClasspath.load();
+        for (Map.Entry<PrefetchRequest, String> patch : projectPatches.entrySet()) {
+            PrefetchRequest request = patch.getKey();
+            Element entry = eclipseClasspath.findClasspathEntry(request.getLibraryPath());
+            if (entry == null) {
+                continue;
+            }
+            String value = patch.getValue();
+            ClasspathEntry current = new ClasspathEntry(entry);
+            if (request.isSources()) {
+                if (value != null || request.getAttachmentPath().equals(current.getSourcePath())) {
+                    eclipseClasspath.setSourcePath(entry, value);
+                }
+            } else {
+                if (value != null || request.getAttachmentPath().equals(current.getJavadocLocation())) {
+                    eclipseClasspath.setJavadocLocation(entry, value);
+                }
+            }
+        }
+        eclipseClasspath.write();
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Prefetch is interrupted.", ex);
+        }
+    }
+
+    /**
+     * Task which resolves an attachment.
+     */
+    private class FetchTask implements Callable<ArtifactResult> {
+        private final PrefetchRequest request;
+
+        FetchTask(PrefetchRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public ArtifactResult call() {
+            EclipathArtifact library = artifactHelper.createArtifact(request.getGroupId(), request.getArtifactId(),
+                    request.getVersion(), request.getType(), request.getBaseClassifier());
+            EclipathArtifact attachment = request.isSources() ? artifactHelper.createSourceArtifact(library)
+                    : artifactHelper.createJavadocArtifact(library);
+            return artifactHelper.resolveAll(Collections.singletonList(attachment), false).get(attachment);
+        }
+    }
+}
@@ -23,18 +23,52 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.ResolutionRecorder;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
 import org.seasar.uruma.eclipath.model.FileDependency;
 import org.seasar.uruma.eclipath.model.M2Dependency;
+import org.seasar.uruma.eclipath.report.ReportFormat;
+import org.seasar.uruma.eclipath.report.ResolveReport;
+import org.seasar.uruma.eclipath.util.ProjectUtil;
 
 /**
  * @author y-komori
  */
 @Mojo(name = "resolve", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyResolution = ResolutionScope.TEST)
 public class ResolveMojo extends AbstractEclipathMojo {
+    /**
+     * Format of the report which is written to
+     * {@code target/eclipath/resolve-report.<format>}. Value must be either
+     * {@code jsonl} or {@code csv}.
+     */
+    @Parameter(defaultValue = "jsonl")
+    protected String resolveReportFormat;
+
+    protected ReportFormat reportFormat;
+
+    @Override
+    protected void checkParameters() {
+        super.checkParameters();
+        reportFormat = ReportFormat.fromConfName(resolveReportFormat);
+        if (reportFormat == null) {
+            throw new PluginRuntimeException("Parameter resolveReportFormat must be \"jsonl\" or \"csv\".");
+        }
+        logParameter("[Parameter: resolveReportFormat] " + reportFormat.confName());
+    }
+
+    /**
+     * The summary including the statistics of remote repositories is always
+     * logged.
+     */
+    @Override
+    protected boolean isReportLogged() {
+        return true;
+    }
 
     /*
      * @see org.seasar.uruma.eclipath.mojo.AbstractEclipathMojo#doExecute()
@@ -43,7 +77,11 @@ public class ResolveMojo extends AbstractEclipathMojo {
     protected void doExecute() throws MojoExecutionException, MojoFailureException {
         // Get dependencies
         Set<EclipathArtifact> dependingArtifacts = getEclipathArtifacts();
+        ResolutionRecorder recorder = new ResolutionRecorder();
+        artifactHelper.setRepositoryListener(recorder);
         List<Dependency> dependencies = resolveArtifacts(dependingArtifacts, true);
+        writeReport(dependencies, recorder);
+
         List<Dependency> prjDependencies = new LinkedList<Dependency>();
         List<Dependency> repoDependencies = new LinkedList<Dependency>();
         for (Dependency dependency : dependencies) {
@@ -77,6 +115,46 @@ public class ResolveMojo extends AbstractEclipathMojo {
         }
     }
 
+    protected void writeReport(List<Dependency> dependencies, ResolutionRecorder recorder) {
+        ResolveReport report = new ResolveReport(ProjectUtil.getWorkDir(project), reportFormat, project.getId());
+        report.open();
+        try {
+            for (Dependency dependency : dependencies) {
+                addToReport(report, recorder, ResolveReport.KIND_MAIN, dependency.getLibraryArtifact());
+                addToReport(report, recorder, ResolveReport.KIND_SOURCES, dependency.getSourceArtifact());
+                addToReport(report, recorder, ResolveReport.KIND_JAVADOC, dependency.getJavadocArtifact());
+            }
+        } finally {
+            report.close();
+        }
+    }
+
+    protected void addToReport(ResolveReport report, ResolutionRecorder recorder, String kind,
+            EclipathArtifact artifact) {
+        if (artifact == null) {
+            return;
+        }
+
+        ResolutionRecorder.Record record = recorder.getRecord(artifact);
+        String repositoryId = record != null ? record.getRepositoryId() : null;
+        long millis = record != null ? record.getMillis() : -1;
+        String status;
+        if (artifact.isResolved()) {
+            status = ResolveReport.STATUS_RESOLVED;
+            if (repositoryId == null) {
+                // resolved by Maven or found in the local repository
+                repositoryId = artifactHelper.findRepositoryId(artifact);
+            }
+        } else if (record == null) {
+            status = ResolveReport.STATUS_SKIPPED;
+        } else if (record.isMissing()) {
+            status = ResolveReport.STATUS_MISSING;
+        } else {
+            status = ResolveReport.STATUS_FAILED;
+        }
+        report.add(kind, artifact, status, repositoryId, millis);
+    }
+
     protected void formatDependency(Dependency dependency) {
         EclipathArtifact artifact = dependency.getLibraryArtifact();
         Logger.info(String.format(" %s  %s", formatResolveStatus(artifact), artifact));
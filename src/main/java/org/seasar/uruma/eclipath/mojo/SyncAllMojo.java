@@ -0,0 +1,146 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.mojo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
+
+/**
+ * Executes the sync goal for all modules of the reactor in one invocation.<br />
+ * Modules are processed concurrently. Resolution results, the workspace
+ * configuration and the resolver and copier thread pools are shared by all
+ * modules. Modules whose packaging is {@code pom} are skipped.
+ *
+ * @author y-komori
+ */
+@Mojo(name = "sync-all", aggregator = true, requiresDependencyResolution = ResolutionScope.TEST)
+public class SyncAllMojo extends SyncMojo {
+    private static final String PACKAGING_POM = "pom";
+
+    /**
+     * Number of modules which are processed concurrently.
+     */
+    @Parameter(defaultValue = "4")
+    protected int moduleThreads;
+
+    @Override
+    protected void checkParameters() {
+        super.checkParameters();
+        if (moduleThreads < 1) {
+            throw new PluginRuntimeException("Parameter moduleThreads must be greater than 0.");
+        }
+        logParameter("[Parameter: moduleThreads]     " + moduleThreads);
+    }
+
+    @Override
+    protected void prepare() {
+        // each module is prepared by its own SyncMojo.
+    }
+
+    @Override
+    protected void writeReport() {
+        // each module writes its own report.
+    }
+
+    @Override
+    protected void doExecute() throws MojoExecutionException, MojoFailureException {
+        List<MavenProject> modules = new ArrayList<MavenProject>();
+        for (MavenProject module : session.getProjects()) {
+            if (PACKAGING_POM.equals(module.getPackaging())) {
+                Logger.info("Skipped pom module. : " + module.getId());
+            } else {
+                modules.add(module);
+            }
+        }
+
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(modules.size());
+        ExecutorService executor = Executors.newFixedThreadPool(moduleThreads, new NamedThreadFactory("module"));
+        resolveExecutor = Executors.newFixedThreadPool(resolveThreads, new NamedThreadFactory("resolver"));
+        copyExecutor = Executors.newFixedThreadPool(copyThreads, new NamedThreadFactory("copier"));
+        try {
+            for (MavenProject module : modules) {
+                futures.add(executor.submit(new ModuleTask(module)));
+            }
+
+            List<String> failedModules = new ArrayList<String>();
+            for (int i = 0; i < futures.size(); i++) {
+                MavenProject module = modules.get(i);
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new PluginRuntimeException("sync-all is interrupted.", ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    Logger.error("Failed to sync " + module.getId() + " : " + cause.getMessage(), cause);
+                    failedModules.add(module.getId());
+                }
+            }
+
+            if (!failedModules.isEmpty()) {
+                throw new MojoExecutionException("Failed to sync modules. : " + failedModules);
+            }
+            Logger.info(modules.size() + " modules synchronized.");
+        } finally {
+            executor.shutdownNow();
+            resolveExecutor.shutdownNow();
+            copyExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Task which executes the sync goal for a module.
+     */
+    private class ModuleTask implements Callable<Void> {
+        private final MavenProject module;
+
+        ModuleTask(MavenProject module) {
+            this.module = module;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            SyncMojo mojo = new SyncMojo();
+            mojo.copyConfiguration(SyncAllMojo.this, module);
+            mojo.verboseParameters = false;
+            mojo.resolveExecutor = resolveExecutor;
+            mojo.copyExecutor = copyExecutor;
+
+            Logger.info("Synchronizing " + module.getId() + " ...");
+            mojo.startReport();
+            mojo.checkParameters();
+            mojo.prepare();
+            mojo.doExecute();
+            mojo.writeReport();
+            return null;
+        }
+    }
+}
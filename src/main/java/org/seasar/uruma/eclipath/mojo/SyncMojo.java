@@ -17,26 +17,48 @@ package org.seasar.uruma.eclipath.mojo;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.seasar.uruma.eclipath.ArtifactHelper;
 import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.PrefetchQueue;
+import org.seasar.uruma.eclipath.PrefetchRequest;
 import org.seasar.uruma.eclipath.ProjectRefresher;
 import org.seasar.uruma.eclipath.PropertiesFile;
+import org.seasar.uruma.eclipath.RefreshQueue;
+import org.seasar.uruma.eclipath.SyncFingerprint;
 import org.seasar.uruma.eclipath.classpath.ClasspathEntry;
 import org.seasar.uruma.eclipath.classpath.CompilerConfiguration;
 import org.seasar.uruma.eclipath.classpath.EclipseClasspath;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.seasar.uruma.eclipath.model.ArtifactFileName;
+import org.seasar.uruma.eclipath.model.AttachmentMode;
 import org.seasar.uruma.eclipath.model.Dependency;
 import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.model.FileDependency;
+import org.seasar.uruma.eclipath.report.Counter;
+import org.seasar.uruma.eclipath.report.Phase;
+import org.seasar.uruma.eclipath.util.NamedThreadFactory;
 import org.seasar.uruma.eclipath.util.ProjectUtil;
 import org.w3c.dom.Element;
 
@@ -46,43 +68,126 @@ import org.w3c.dom.Element;
  */
 @Mojo(name = "sync", defaultPhase = LifecyclePhase.PROCESS_SOURCES, requiresDependencyResolution = ResolutionScope.TEST)
 public class SyncMojo extends AbstractEclipathMojo {
+    private static final String SYNC_STATE_FILENAME = "sync.state";
+
+    /**
+     * If true, skips this goal when the dependencies, the plugin parameters,
+     * the compiler configuration and the Eclipse configuration files are not
+     * changed since the last execution, and all library, source and javadoc
+     * files are in place. Source and javadoc artifacts which appear in the
+     * local repository are also detected.
+     */
+    @Parameter(defaultValue = "true")
+    protected boolean incremental;
+
+    /**
+     * Hours after which the state recorded by the incremental sync expires, so
+     * that missing attachments are checked again. {@code 0} means the state
+     * never expires.
+     */
+    @Parameter(defaultValue = "24")
+    protected int syncStateTtl;
+
+    /**
+     * Number of threads which copy library, source and javadoc artifacts into
+     * the project concurrently.
+     */
+    @Parameter(defaultValue = "4")
+    protected int copyThreads;
+
+    /**
+     * Thread pool shared by the copiers of all modules, or {@code null}.
+     */
+    protected ExecutorService copyExecutor;
+
+    /**
+     * Version independent keys of the dependencies being synchronized.
+     */
+    protected final Set<String> dependencyKeys = new HashSet<String>();
+
+    @Override
+    protected void checkParameters() {
+        super.checkParameters();
+        if (copyThreads < 1) {
+            throw new PluginRuntimeException("Parameter copyThreads must be greater than 0.");
+        }
+        logParameter("[Parameter: copyThreads]       " + copyThreads);
+        logParameter("[Parameter: syncStateTtl]      " + syncStateTtl);
+    }
+
+    /**
+     * The summary is logged unless this goal is executed as a module of
+     * sync-all.
+     */
+    @Override
+    protected void copyConfiguration(AbstractEclipathMojo source, MavenProject module) {
+        super.copyConfiguration(source, module);
+        if (source instanceof SyncMojo) {
+            incremental = ((SyncMojo) source).incremental;
+            syncStateTtl = ((SyncMojo) source).syncStateTtl;
+            copyThreads = ((SyncMojo) source).copyThreads;
+        }
+    }
+
+    @Override
+    protected boolean isReportLogged() {
+        return verboseParameters;
+    }
 
     @Override
     protected void doExecute() throws MojoExecutionException, MojoFailureException {
-        // Load ".classpath" file
         EclipseClasspath eclipseClasspath = new EclipseClasspath(eclipseProjectDir);
-        eclipseClasspath.load();
+        File stateFile = new File(ProjectUtil.getWorkDir(project), SYNC_STATE_FILENAME);
+        Set<EclipathArtifact> dependingArtifacts = getEclipathArtifacts();
+
+        // Check whether anything is changed since the last execution
+        if (incremental) {
+            SyncFingerprint fingerprint = createFingerprint(dependingArtifacts, eclipseClasspath);
+            if (fingerprint.isSameAs(stateFile, syncStateTtl * 60L * 60L * 1000L)) {
+                Logger.info("Nothing is changed since the last sync. Skipped.");
+                return;
+            }
+        }
 
         // Get dependencies
-        Set<EclipathArtifact> dependingArtifacts = getEclipathArtifacts();
         List<Dependency> dependencies = resolveArtifacts(dependingArtifacts);
+
+        // Copy artifacts
+        long start = buildReport.start();
+        Set<Dependency> failedDependencies = copyArtifacts(dependencies);
+        libraryManifests.storeAll();
+        buildReport.stop(Phase.COPY, start);
+
+        // Load ".classpath" file
+        start = buildReport.start();
+        eclipseClasspath.load();
+
         for (Dependency dependency : dependencies) {
-            try {
-                // Copy artifacts
-                dependency.copyLibraryArtifact();
-                if (downloadSources) {
-                    dependency.copySourceArtifact();
-                }
-                if (downloadJavadocs) {
-                    dependency.copyJavadocArtifact();
-                }
+            dependencyKeys.add(dependency.getLibraryArtifact().getVersionIndependentKey());
+        }
+        for (Dependency dependency : dependencies) {
+            if (failedDependencies.contains(dependency)) {
+                continue;
+            }
 
-                // Remove old version libraries (if exists)
-                removeDuplicatedClasspathEntry(eclipseClasspath, dependency);
+            // Remove old version libraries (if exists)
+            removeDuplicatedClasspathEntry(eclipseClasspath, dependency);
 
-                // Add to classpath
-                String libraryPath = dependency.getLibraryPath();
-                String sourcePath = dependency.getSourcePath();
-                String javadocPath = dependency.getJavadocPath();
-                if (eclipseClasspath.findClasspathEntry(libraryPath) == null) {
-                    eclipseClasspath.addClasspathEntry(dependency.getClasspathKind(), libraryPath, sourcePath,
-                            javadocPath);
-                }
-            } catch (IOException ex) {
-                Logger.warn("Failed to copy artifact. : ", ex);
+            // Add to classpath
+            String libraryPath = dependency.getLibraryPath();
+            String sourcePath = getSourcePath(dependency);
+            String javadocPath = getJavadocPath(dependency);
+            if (eclipseClasspath.findClasspathEntry(libraryPath) == null) {
+                eclipseClasspath.addClasspathEntry(dependency.getClasspathKind(), libraryPath, sourcePath,
+                        javadocPath);
             }
         }
 
+        // Queue attachments which are not downloaded yet
+        if (attachments == AttachmentMode.LAZY) {
+            enqueueAttachments(dependencies, failedDependencies);
+        }
+
         // Remove classpathentries which doesn't exist in pom.xml
         Map<String, ClasspathEntry> entryMap = new HashMap<String, ClasspathEntry>();
         for (ClasspathEntry entry : eclipseClasspath.getAllClasspathEntries()) {
@@ -99,11 +204,17 @@ public class SyncMojo extends AbstractEclipathMojo {
         }
         eclipseClasspath.removeClasspathEntries(entryMap.values());
 
-        // Adjust java version
+        // Add JRE container
         if (adjustJavaVersion) {
-            // Add JRE container
             eclipseClasspath.addJavaContainerClasspathEntry(compilerConfiguration);
+        }
+        buildReport.add(Counter.ENTRIES_ADDED, eclipseClasspath.getAddedEntryCount());
+        buildReport.add(Counter.ENTRIES_REMOVED, eclipseClasspath.getRemovedEntryCount());
+        buildReport.stop(Phase.RECONCILE, start);
 
+        // Adjust java version
+        start = buildReport.start();
+        if (adjustJavaVersion) {
             adjustJdtPrefs(compilerConfiguration);
             adjustJavaProjectFacet(compilerConfiguration.getTargetVersion());
         }
@@ -111,36 +222,241 @@ public class SyncMojo extends AbstractEclipathMojo {
         // Write ".classpath" file
         eclipseClasspath.write();
 
-        // Refresh project
+        // Record the state only when all libraries are resolved
+        if (incremental && isAllResolved(dependencies)) {
+            createFingerprint(dependingArtifacts, eclipseClasspath).store(stateFile);
+        }
+        buildReport.stop(Phase.WRITE, start);
+
+        // Refresh project (requests are sent when the session ends)
         if (autoRefresh) {
-            ProjectRefresher refresher = new ProjectRefresher();
-            refresher.refresh(project, refreshHost, refreshPort);
+            start = buildReport.start();
+            RefreshQueue refreshQueue = buildContext.getRefreshQueue();
+            refreshQueue.add(refreshHost, refreshPort, new ProjectRefresher().getProjectName(project));
+            buildReport.stop(Phase.REFRESH, start);
         }
     }
 
+    protected SyncFingerprint createFingerprint(Set<EclipathArtifact> artifacts, EclipseClasspath eclipseClasspath) {
+        SyncFingerprint fingerprint = new SyncFingerprint();
+        fingerprint.add("version", pluginInformation.getVersion());
+        fingerprint.add("policy", classpathPolicy);
+        fingerprint.add("layout", libraryLayout.getName());
+        fingerprint.add("materialization", materializationStrategy);
+        fingerprint.add("excludeGroupIds", excludeGroupIds);
+        fingerprint.add("excludeScopes", excludeScopes);
+        fingerprint.add("adjustJavaVersion", adjustJavaVersion);
+        fingerprint.add("downloadSources", downloadSources);
+        fingerprint.add("downloadJavadocs", downloadJavadocs);
+        fingerprint.add("attachmentMode", attachments);
+        fingerprint.add("M2_REPO", workspaceConfigurator.isConfigured() ? workspaceConfigurator
+                .getClasspathVariableM2REPO() : null);
+        fingerprint.add("source", compilerConfiguration.getSourceVersion());
+        fingerprint.add("target", compilerConfiguration.getTargetVersion());
+        for (EclipathArtifact artifact : artifacts) {
+            fingerprint.add("artifact", artifact.getArtifact().getId() + ":" + artifact.getArtifact().getScope());
+            fingerprint.addFile("file", artifact.getFile());
+        }
+        for (Dependency dependency : createDependencies(artifacts)) {
+            if (dependency instanceof FileDependency) {
+                FileDependency fileDependency = (FileDependency) dependency;
+                fingerprint.addFile("lib", fileDependency.getLibraryFile());
+                fingerprint.addFile("sources", fileDependency.getSourceFile());
+                fingerprint.addFile("javadoc", fileDependency.getJavadocFile());
+            }
+            // attachments which become available in the local repository
+            addLocalFile(fingerprint, "localSources", dependency.getSourceArtifact());
+            addLocalFile(fingerprint, "localJavadoc", dependency.getJavadocArtifact());
+        }
+        fingerprint.addFile(".classpath", eclipseClasspath.getClasspathFile());
+        fingerprint.addFile("jdtPrefs", projectLocations.getJdtPrefsFile());
+        fingerprint.addFile("facet", wstProjectFacet.getFile());
+        return fingerprint;
+    }
+
+    private void addLocalFile(SyncFingerprint fingerprint, String name, EclipathArtifact artifact) {
+        if (artifact != null) {
+            artifactHelper.locate(artifact);
+            fingerprint.addFile(name, artifact.getFile());
+        }
+    }
+
+    /**
+     * Copies library, source and javadoc artifacts of all dependencies
+     * concurrently.
+     *
+     * @param dependencies
+     *        dependencies to copy
+     * @return dependencies which could not be copied
+     */
+    protected Set<Dependency> copyArtifacts(List<Dependency> dependencies) {
+        Map<Dependency, List<Future<File>>> futures = new LinkedHashMap<Dependency, List<Future<File>>>();
+        boolean shared = copyExecutor != null;
+        ExecutorService executor = shared ? copyExecutor : Executors.newFixedThreadPool(copyThreads,
+                new NamedThreadFactory("copier"));
+        try {
+            for (Dependency dependency : dependencies) {
+                List<Future<File>> dependencyFutures = new ArrayList<Future<File>>(3);
+                dependencyFutures.add(executor.submit(new CopyTask(dependency, CopyTask.LIBRARY)));
+                if (downloadSources) {
+                    dependencyFutures.add(executor.submit(new CopyTask(dependency, CopyTask.SOURCE)));
+                }
+                if (downloadJavadocs) {
+                    dependencyFutures.add(executor.submit(new CopyTask(dependency, CopyTask.JAVADOC)));
+                }
+                futures.put(dependency, dependencyFutures);
+            }
+
+            Set<Dependency> failed = new HashSet<Dependency>();
+            for (Entry<Dependency, List<Future<File>>> entry : futures.entrySet()) {
+                for (Future<File> future : entry.getValue()) {
+                    if (!waitForCopy(future)) {
+                        failed.add(entry.getKey());
+                    }
+                }
+            }
+            return failed;
+        } finally {
+            if (shared) {
+                for (List<Future<File>> dependencyFutures : futures.values()) {
+                    for (Future<File> future : dependencyFutures) {
+                        future.cancel(true);
+                    }
+                }
+            } else {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private boolean waitForCopy(Future<File> future) {
+        try {
+            future.get();
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PluginRuntimeException("Copying artifacts is interrupted.", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                Logger.warn("Failed to copy artifact. : ", cause);
+                return false;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PluginRuntimeException(cause);
+        }
+    }
+
+    /**
+     * Adds source and javadoc artifacts which are not resolved to the
+     * prefetch queue.
+     */
+    protected void enqueueAttachments(List<Dependency> dependencies, Set<Dependency> failedDependencies) {
+        String projectDir = eclipseProjectDir.getAbsolutePath();
+        List<PrefetchRequest> requests = new ArrayList<PrefetchRequest>();
+        for (Dependency dependency : dependencies) {
+            EclipathArtifact library = dependency.getLibraryArtifact();
+            if (!library.isResolved() || failedDependencies.contains(dependency)) {
+                continue;
+            }
+
+            String libraryPath = dependency.getLibraryPath();
+            EclipathArtifact srcArtifact = dependency.getSourceArtifact();
+            if (srcArtifact != null && !srcArtifact.isResolved()) {
+                File destination = dependency instanceof FileDependency ? ((FileDependency) dependency)
+                        .getSourceFile() : null;
+                requests.add(new PrefetchRequest(ArtifactHelper.SOURCES_CLASSIFIER, library, projectDir,
+                        libraryPath, dependency.getExpectedSourcePath(), getAbsolutePath(destination)));
+            }
+            EclipathArtifact javadocArtifact = dependency.getJavadocArtifact();
+            if (javadocArtifact != null && !javadocArtifact.isResolved()) {
+                File destination = dependency instanceof FileDependency ? ((FileDependency) dependency)
+                        .getJavadocFile() : null;
+                requests.add(new PrefetchRequest(ArtifactHelper.JAVADOC_CLASSIFIER, library, projectDir,
+                        libraryPath, dependency.getExpectedJavadocPath(), getAbsolutePath(destination)));
+            }
+        }
+        new PrefetchQueue(repoSession.getLocalRepository().getBasedir()).enqueue(requests);
+    }
+
+    private String getAbsolutePath(File file) {
+        return file != null ? file.getAbsolutePath() : null;
+    }
+
+    protected boolean isAllResolved(List<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            if (!dependency.getLibraryArtifact().isResolved()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void removeDuplicatedClasspathEntry(EclipseClasspath eclipseClasspath, Dependency dependency) {
-        Pattern pattern = dependency.getLibraryArtifact().getVersionIndependentFileNamePattern();
-        List<Element> oldVersionEntries = eclipseClasspath.findClasspathEntry(pattern);
+        EclipathArtifact artifact = dependency.getLibraryArtifact();
+        String key = artifact.getVersionIndependentKey();
+        List<Element> oldVersionEntries = eclipseClasspath.findClasspathEntriesByKey(key);
         ClasspathEntry newEntry = createClasspathEntry(dependency);
         for (Element entry : oldVersionEntries) {
             ClasspathEntry existingEntry = new ClasspathEntry(entry);
-            if (!newEntry.equals(existingEntry)) {
+            if (!newEntry.equals(existingEntry)
+                    && !isOfLongerArtifactId(existingEntry.getPath(), artifact.artifactId())) {
                 eclipseClasspath.removeClasspathEntryElement(entry);
             }
         }
     }
 
+    /**
+     * Checks if the file name of the specified path also matches another
+     * dependency whose artifact id is longer, such as {@code log4j-1.2-api}
+     * for {@code log4j}. Such an entry belongs to the other dependency.
+     */
+    private boolean isOfLongerArtifactId(String path, String artifactId) {
+        for (ArtifactFileName fileName : ArtifactFileName.parseAll(path)) {
+            if (fileName.getArtifactId().length() > artifactId.length()
+                    && dependencyKeys.contains(fileName.getVersionIndependentKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     protected ClasspathEntry createClasspathEntry(Dependency dependency) {
         ClasspathEntry entry = new ClasspathEntry();
         entry.setClasspathKind(dependency.getClasspathKind());
         entry.setPath(dependency.getLibraryPath());
-        entry.setSourcePath(dependency.getSourcePath());
-        entry.setJavadocLocation(dependency.getJavadocPath());
+        entry.setSourcePath(getSourcePath(dependency));
+        entry.setJavadocLocation(getJavadocPath(dependency));
         return entry;
     }
 
+    /**
+     * Returns the source path written to {@code .classpath}. On the lazy
+     * attachment mode, the expected path is returned even if the source
+     * artifact is not downloaded yet.
+     */
+    protected String getSourcePath(Dependency dependency) {
+        if (attachments == AttachmentMode.LAZY) {
+            return dependency.getExpectedSourcePath();
+        }
+        return dependency.getSourcePath();
+    }
+
+    /**
+     * Returns the javadoc location written to {@code .classpath}. On the lazy
+     * attachment mode, the expected location is returned even if the javadoc
+     * artifact is not downloaded yet.
+     */
+    protected String getJavadocPath(Dependency dependency) {
+        if (attachments == AttachmentMode.LAZY) {
+            return dependency.getExpectedJavadocPath();
+        }
+        return dependency.getJavadocPath();
+    }
+
     protected void adjustJdtPrefs(CompilerConfiguration conf) {
-        File jdtPrefsFile = ProjectUtil.getJdtPrefsFile(project);
+        File jdtPrefsFile = projectLocations.getJdtPrefsFile();
         if (!jdtPrefsFile.exists()) {
             return;
         }
@@ -159,4 +475,36 @@ public class SyncMojo extends AbstractEclipathMojo {
         }
         wstProjectFacet.write();
     }
+
+    /**
+     * Task which copies one of the artifacts of a dependency.
+     */
+    private static class CopyTask implements Callable<File> {
+        static final int LIBRARY = 0;
+
+        static final int SOURCE = 1;
+
+        static final int JAVADOC = 2;
+
+        private final Dependency dependency;
+
+        private final int kind;
+
+        CopyTask(Dependency dependency, int kind) {
+            this.dependency = dependency;
+            this.kind = kind;
+        }
+
+        @Override
+        public File call() throws IOException {
+            switch (kind) {
+            case SOURCE:
+                return dependency.copySourceArtifact();
+            case JAVADOC:
+                return dependency.copyJavadocArtifact();
+            default:
+                return dependency.copyLibraryArtifact();
+            }
+        }
+    }
 }
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.Date;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang.StringUtils;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.JsonWriter;
+
+/**
+ * Timers and counters of a goal execution.<br />
+ * All methods are thread safe. Times of {@link Phase#RESOLVE_LIBRARIES},
+ * {@link Phase#RESOLVE_SOURCES} and {@link Phase#RESOLVE_JAVADOCS} are summed
+ * up over the resolver threads, so that they may exceed the elapsed time of
+ * {@link Phase#RESOLVE}.
+ *
+ * @author y-komori
+ */
+public class BuildReport {
+    public static final String REPORT_FILENAME = "build-report.json";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+    private final String goal;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLongArray times = new AtomicLongArray(Phase.values().length);
+
+    private final AtomicLongArray counts = new AtomicLongArray(Counter.values().length);
+
+    private final ConcurrentMap<String, RepositoryStats> repositories = new ConcurrentHashMap<String, RepositoryStats>();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param goal
+     *        name of the goal
+     */
+    public BuildReport(String goal) {
+        this.goal = goal;
+    }
+
+    /**
+     * Returns the start time of a timer.
+     *
+     * @return start time to pass to {@link #stop(Phase, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the elapsed time since {@code start} to the phase.
+     *
+     * @param phase
+     *        phase
+     * @param start
+     *        value returned by {@link #start()}
+     */
+    public void stop(Phase phase, long start) {
+        times.addAndGet(phase.ordinal(), System.nanoTime() - start);
+    }
+
+    public void increment(Counter counter) {
+        counts.incrementAndGet(counter.ordinal());
+    }
+
+    public void add(Counter counter, long delta) {
+        counts.addAndGet(counter.ordinal(), delta);
+    }
+
+    /**
+     * Returns the time of the phase in milliseconds.
+     *
+     * @param phase
+     *        phase
+     * @return time in milliseconds
+     */
+    public long getTime(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(times.get(phase.ordinal()));
+    }
+
+    public long getCount(Counter counter) {
+        return counts.get(counter.ordinal());
+    }
+
+    /**
+     * Returns the statistics of the specified remote repository, creating
+     * them if not exist.
+     *
+     * @param repositoryId
+     *        id of the repository
+     * @return {@link RepositoryStats} object
+     */
+    public RepositoryStats getRepositoryStats(String repositoryId) {
+        RepositoryStats stats = repositories.get(repositoryId);
+        if (stats == null) {
+            RepositoryStats created = new RepositoryStats(repositoryId);
+            stats = repositories.putIfAbsent(repositoryId, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the statistics of all remote repositories in the order of their
+     * ids.
+     *
+     * @return collection of {@link RepositoryStats}
+     */
+    public Collection<RepositoryStats> getAllRepositoryStats() {
+        return new TreeMap<String, RepositoryStats>(repositories).values();
+    }
+
+    /**
+     * Returns the elapsed time since this report is created in milliseconds.
+     *
+     * @return elapsed time in milliseconds
+     */
+    public long getTotalTime() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Writes this report as JSON.
+     *
+     * @param file
+     *        report file
+     * @param projectId
+     *        id of the project
+     */
+    public void write(File file, String projectId) {
+        JsonWriter json = new JsonWriter();
+        json.beginObject();
+        json.member("goal", goal);
+        json.member("project", projectId);
+        json.member("started", new SimpleDateFormat(DATE_FORMAT).format(new Date(startTime)));
+        json.member("totalMillis", getTotalTime());
+        json.name("phaseMillis").beginObject();
+        for (Phase phase : Phase.values()) {
+            json.member(phase.reportName(), getTime(phase));
+        }
+        json.endObject();
+        json.name("counters").beginObject();
+        for (Counter counter : Counter.values()) {
+            json.member(counter.reportName(), getCount(counter));
+        }
+        json.endObject();
+        json.name("repositories").beginObject();
+        for (RepositoryStats stats : getAllRepositoryStats()) {
+            LatencyHistogram histogram = stats.getHistogram();
+            json.name(stats.getRepositoryId()).beginObject();
+            json.member("requests", histogram.getCount());
+            json.member("successes", stats.getSuccesses());
+            json.member("misses", stats.getMisses());
+            json.member("errors", stats.getErrors());
+            json.name("latencyMillis").beginObject();
+            json.member("mean", histogram.getMean());
+            json.member("p50", histogram.getValueAtPercentile(50));
+            json.member("p90", histogram.getValueAtPercentile(90));
+            json.member("p99", histogram.getValueAtPercentile(99));
+            json.member("max", histogram.getMax());
+            json.endObject();
+            json.endObject();
+        }
+        json.endObject();
+        json.endObject();
+
+        try {
+            AtomicFileUtil.writeIfChanged(file, (json.toString() + "\n").getBytes(ENCODING));
+            Logger.debug("Build report wrote : " + file.getAbsolutePath());
+        } catch (IOException ex) {
+            Logger.warn("Failed to write build report. : " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Logs the summary of this report. Phases and counters which are zero are
+     * omitted.
+     */
+    public void log() {
+        Logger.info(Logger.SEPARATOR);
+        Logger.info(" Build report. (" + goal + ")  total: " + getTotalTime() + " ms");
+        Logger.info(Logger.SEPARATOR);
+        for (Phase phase : Phase.values()) {
+            long time = getTime(phase);
+            if (time > 0) {
+                Logger.info(" " + StringUtils.rightPad(phase.reportName(), 24) + StringUtils.leftPad(
+                        Long.toString(time), 8) + " ms");
+            }
+        }
+        for (Counter counter : Counter.values()) {
+            long count = getCount(counter);
+            if (count > 0) {
+                Logger.info(" " + StringUtils.rightPad(counter.reportName(), 24) + StringUtils.leftPad(
+                        Long.toString(count), 8));
+            }
+        }
+        Logger.info(Logger.SEPARATOR);
+        logRepositories();
+    }
+
+    /**
+     * Logs the statistics of remote repositories as a table. Nothing is logged
+     * if no repository is accessed.
+     */
+    public void logRepositories() {
+        Collection<RepositoryStats> allStats = getAllRepositoryStats();
+        if (allStats.isEmpty()) {
+            return;
+        }
+        Logger.info(" " + StringUtils.rightPad("repository", 24) + column("requests") + column("success")
+                + column("miss") + column("error") + column("p50 ms") + column("p90 ms") + column("p99 ms")
+                + column("max ms"));
+        for (RepositoryStats stats : allStats) {
+            LatencyHistogram histogram = stats.getHistogram();
+            Logger.info(" " + StringUtils.rightPad(stats.getRepositoryId(), 24) + column(histogram.getCount())
+                    + column(stats.getSuccesses()) + column(stats.getMisses()) + column(stats.getErrors())
+                    + column(histogram.getValueAtPercentile(50)) + column(histogram.getValueAtPercentile(90))
+                    + column(histogram.getValueAtPercentile(99)) + column(histogram.getMax()));
+        }
+        Logger.info(Logger.SEPARATOR);
+    }
+
+    private static String column(long value) {
+        return column(Long.toString(value));
+    }
+
+    private static String column(String value) {
+        return StringUtils.leftPad(value, 9);
+    }
+}
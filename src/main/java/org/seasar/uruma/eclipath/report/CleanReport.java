@@ -0,0 +1,162 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.util.AtomicFileUtil;
+import org.seasar.uruma.eclipath.util.JsonWriter;
+
+/**
+ * Result of {@code check-clean} or {@code clean} goal.<br />
+ * In dry run, files are recorded as they would be removed. All methods are
+ * thread safe.
+ *
+ * @author y-komori
+ */
+public class CleanReport {
+    public static final String REPORT_FILENAME = "clean-report.json";
+
+    private static final String ENCODING = "UTF-8";
+
+    private final boolean dryRun;
+
+    private final List<FileEntry> removedFiles = new ArrayList<FileEntry>();
+
+    private final List<String> failedFiles = new ArrayList<String>();
+
+    private final List<String> removedDirs = new ArrayList<String>();
+
+    private long bytesReclaimed;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param dryRun
+     *        {@code true} if no file is actually removed
+     */
+    public CleanReport(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public synchronized void addRemovedFile(File file, long length) {
+        removedFiles.add(new FileEntry(file.getAbsolutePath(), length));
+        bytesReclaimed += length;
+    }
+
+    public synchronized void addFailedFile(File file) {
+        failedFiles.add(file.getAbsolutePath());
+    }
+
+    public synchronized void addRemovedDir(File dir) {
+        removedDirs.add(dir.getAbsolutePath());
+    }
+
+    public synchronized int getRemovedFileCount() {
+        return removedFiles.size();
+    }
+
+    public synchronized int getFailedFileCount() {
+        return failedFiles.size();
+    }
+
+    public synchronized long getBytesReclaimed() {
+        return bytesReclaimed;
+    }
+
+    /**
+     * Writes this report as JSON. Paths are sorted, so that the report does not
+     * depend on the order of deletion.
+     *
+     * @param file
+     *        report file
+     * @param projectId
+     *        id of the project
+     */
+    public synchronized void write(File file, String projectId) {
+        Collections.sort(removedFiles);
+        Collections.sort(failedFiles);
+        Collections.sort(removedDirs);
+
+        JsonWriter json = new JsonWriter();
+        json.beginObject();
+        json.member("project", projectId);
+        json.member("dryRun", dryRun);
+        json.member("filesRemoved", removedFiles.size());
+        json.member("bytesReclaimed", bytesReclaimed);
+        json.member("filesFailed", failedFiles.size());
+        json.member("directoriesRemoved", removedDirs.size());
+        json.name("files").beginArray();
+        for (FileEntry entry : removedFiles) {
+            json.beginObject();
+            json.member("path", entry.path);
+            json.member("bytes", entry.length);
+            json.endObject();
+        }
+        json.endArray();
+        writePaths(json, "failed", failedFiles);
+        writePaths(json, "directories", removedDirs);
+        json.endObject();
+
+        try {
+            AtomicFileUtil.writeIfChanged(file, (json.toString() + "\n").getBytes(ENCODING));
+            Logger.debug("Clean report wrote : " + file.getAbsolutePath());
+        } catch (IOException ex) {
+            Logger.warn("Failed to write clean report. : " + file.getAbsolutePath(), ex);
+        }
+    }
+
+    private void writePaths(JsonWriter json, String name, List<String> paths) {
+        json.name(name).beginArray();
+        for (String path : paths) {
+            json.value(path);
+        }
+        json.endArray();
+    }
+
+    /**
+     * Logs the summary of this report.
+     */
+    public synchronized void log() {
+        String verb = dryRun ? "Will be removed" : "Removed";
+        Logger.info(verb + " " + removedFiles.size() + " files (" + bytesReclaimed + " bytes), "
+                + removedDirs.size() + " directories.");
+        if (!failedFiles.isEmpty()) {
+            Logger.warn("Failed to remove " + failedFiles.size() + " files.");
+        }
+    }
+
+    private static class FileEntry implements Comparable<FileEntry> {
+        final String path;
+
+        final long length;
+
+        FileEntry(String path, long length) {
+            this.path = path;
+            this.length = length;
+        }
+
+        @Override
+        public int compareTo(FileEntry other) {
+            return path.compareTo(other.path);
+        }
+    }
+}
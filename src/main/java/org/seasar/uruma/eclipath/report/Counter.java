@@ -0,0 +1,49 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+/**
+ * Counter of a goal execution which is recorded by {@link BuildReport}.
+ *
+ * @author y-komori
+ */
+public enum Counter {
+    ARTIFACTS_RESOLVED("artifactsResolved"), ARTIFACTS_FAILED("artifactsFailed"), RESOLUTION_CACHE_HITS(
+            "resolutionCacheHits"), NEGATIVE_CACHE_HITS("negativeCacheHits"), ARTIFACTS_COPIED("artifactsCopied"),
+    COPIES_SKIPPED("copiesSkipped"), BYTES_COPIED("bytesCopied"), FILES_COPIED("filesCopied"), HARD_LINKS(
+            "hardLinks"), SYMBOLIC_LINKS("symbolicLinks"), REFLINKS("reflinks"), ENTRIES_ADDED("entriesAdded"),
+    ENTRIES_REMOVED("entriesRemoved");
+
+    private String name;
+
+    private Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name used in reports.
+     *
+     * @return report name
+     */
+    public String reportName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in milliseconds.<br />
+ * Like HdrHistogram, values are counted in buckets whose width grows with
+ * the magnitude of the value, so that every value is recorded with a relative
+ * error of at most 1/{@link #SUB_BUCKET_COUNT}. Values below
+ * {@link #SUB_BUCKET_COUNT} are recorded exactly. All methods are thread
+ * safe.
+ *
+ * @author y-komori
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+
+    protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     *
+     * @param millis
+     *        latency in milliseconds. Negative values are recorded as 0.
+     */
+    public void record(long millis) {
+        long value = Math.max(millis, 0);
+        counts.incrementAndGet(indexOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return mean in milliseconds, or 0 if no value is recorded
+     */
+    public double getMean() {
+        long n = count.get();
+        return n > 0 ? (double) total.get() / n : 0;
+    }
+
+    /**
+     * Returns the value at the specified percentile. The value is the highest
+     * value of the bucket, but never exceeds the maximum recorded value.
+     *
+     * @param percentile
+     *        percentile, from 0 to 100
+     * @return value in milliseconds, or 0 if no value is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max((long) Math.ceil(percentile / 100.0 * n), 1);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= target) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    protected static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subIndex = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subIndex;
+    }
+
+    protected static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subIndex = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lowest = (long) (SUB_BUCKET_COUNT + subIndex) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
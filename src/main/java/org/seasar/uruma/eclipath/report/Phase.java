@@ -0,0 +1,47 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+/**
+ * Phase of a goal execution which is timed by {@link BuildReport}.
+ *
+ * @author y-komori
+ */
+public enum Phase {
+    WORKSPACE_PREFS("prefs"), COMPILER_CONFIGURATION("compilerConfiguration"), FACET("facet"), RESOLVE("resolve"),
+    RESOLVE_LIBRARIES("resolve.libraries"), RESOLVE_SOURCES("resolve.sources"), RESOLVE_JAVADOCS("resolve.javadocs"),
+    COPY("copy"), RECONCILE("reconcile"), WRITE("write"), REFRESH("refresh");
+
+    private String name;
+
+    private Phase(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name used in reports.
+     *
+     * @return report name
+     */
+    public String reportName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+/**
+ * Format of machine-readable reports.
+ *
+ * @author y-komori
+ */
+public enum ReportFormat {
+    JSONL("jsonl"), CSV("csv");
+
+    private String name;
+
+    private ReportFormat(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Provide representation of configuration.
+     *
+     * @return configuration name
+     */
+    public String confName() {
+        return name;
+    }
+
+    /**
+     * Returns the extension of report files.
+     *
+     * @return file extension
+     */
+    public String extension() {
+        return name;
+    }
+
+    /**
+     * Returns the format which has the specified configuration name.
+     *
+     * @param confName
+     *        configuration name
+     * @return {@link ReportFormat}, or {@code null} if not found
+     */
+    public static ReportFormat fromConfName(String confName) {
+        for (ReportFormat format : values()) {
+            if (format.name.equals(confName)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
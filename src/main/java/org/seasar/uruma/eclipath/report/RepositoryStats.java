@@ -0,0 +1,83 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of transfers from a remote repository.<br />
+ * A transfer is a success if the resource is downloaded, a miss if the
+ * repository doesn't have the resource, and an error otherwise. Latencies of
+ * all transfers are recorded in a {@link LatencyHistogram}.
+ *
+ * @author y-komori
+ */
+public class RepositoryStats {
+    private final String repositoryId;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final AtomicLong successes = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param repositoryId
+     *        id of the repository
+     */
+    public RepositoryStats(String repositoryId) {
+        this.repositoryId = repositoryId;
+    }
+
+    public void recordSuccess(long millis) {
+        successes.incrementAndGet();
+        histogram.record(millis);
+    }
+
+    public void recordMiss(long millis) {
+        misses.incrementAndGet();
+        histogram.record(millis);
+    }
+
+    public void recordError(long millis) {
+        errors.incrementAndGet();
+        histogram.record(millis);
+    }
+
+    public String getRepositoryId() {
+        return repositoryId;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public long getSuccesses() {
+        return successes.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+}
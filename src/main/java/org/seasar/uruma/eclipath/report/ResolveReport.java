@@ -0,0 +1,208 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+import org.seasar.uruma.eclipath.util.JsonWriter;
+
+/**
+ * Machine-readable report of {@code resolve} goal.<br />
+ * Each artifact is written to the file as soon as it is added, as a line of
+ * JSON Lines or CSV. If the file can not be written, a warning is logged and
+ * the rest of the artifacts are ignored.
+ *
+ * @author y-komori
+ */
+public class ResolveReport {
+    public static final String REPORT_BASENAME = "resolve-report";
+
+    public static final String KIND_MAIN = "main";
+
+    public static final String KIND_SOURCES = "sources";
+
+    public static final String KIND_JAVADOC = "javadoc";
+
+    public static final String STATUS_RESOLVED = "resolved";
+
+    public static final String STATUS_MISSING = "missing";
+
+    public static final String STATUS_FAILED = "failed";
+
+    public static final String STATUS_SKIPPED = "skipped";
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final String[] COLUMNS = { "project", "groupId", "artifactId", "version", "classifier",
+            "type", "scope", "kind", "status", "size", "repository", "millis", "file" };
+
+    private final File file;
+
+    private final ReportFormat format;
+
+    private final String projectId;
+
+    private Writer writer;
+
+    /**
+     * Constructs new instance.
+     *
+     * @param dir
+     *        directory of the report file
+     * @param format
+     *        format of the report
+     * @param projectId
+     *        id of the project
+     */
+    public ResolveReport(File dir, ReportFormat format, String projectId) {
+        this.file = new File(dir, REPORT_BASENAME + "." + format.extension());
+        this.format = format;
+        this.projectId = projectId;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Creates the report file. The existing file is overwritten.
+     */
+    public void open() {
+        try {
+            File dir = file.getParentFile();
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Failed to create directory : " + dir.getAbsolutePath());
+            }
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), ENCODING));
+            if (format == ReportFormat.CSV) {
+                writeLine(toCsv(COLUMNS));
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Adds an artifact to the report.
+     *
+     * @param kind
+     *        {@link #KIND_MAIN}, {@link #KIND_SOURCES} or {@link #KIND_JAVADOC}
+     * @param artifact
+     *        artifact
+     * @param status
+     *        {@link #STATUS_RESOLVED}, {@link #STATUS_MISSING},
+     *        {@link #STATUS_FAILED} or {@link #STATUS_SKIPPED}
+     * @param repositoryId
+     *        id of the repository which the artifact is resolved from, may be
+     *        {@code null}
+     * @param millis
+     *        resolution time in milliseconds, or {@code -1} if not resolved
+     *        by this goal
+     */
+    public void add(String kind, EclipathArtifact artifact, String status, String repositoryId, long millis) {
+        if (writer == null) {
+            return;
+        }
+        File artifactFile = STATUS_RESOLVED.equals(status) ? artifact.getFile() : null;
+        long size = artifactFile != null ? artifactFile.length() : -1;
+        String path = artifactFile != null ? artifactFile.getAbsolutePath() : null;
+        String scope = artifact.getArtifact().getScope();
+
+        try {
+            if (format == ReportFormat.CSV) {
+                writeLine(toCsv(new String[] { projectId, artifact.groupId(), artifact.artifactId(),
+                        artifact.version(), artifact.classifier(), artifact.type(), scope, kind, status,
+                        Long.toString(size), repositoryId, Long.toString(millis), path }));
+            } else {
+                JsonWriter json = new JsonWriter(true);
+                json.beginObject();
+                json.member("project", projectId);
+                json.member("groupId", artifact.groupId());
+                json.member("artifactId", artifact.artifactId());
+                json.member("version", artifact.version());
+                json.member("classifier", artifact.classifier());
+                json.member("type", artifact.type());
+                json.member("scope", scope);
+                json.member("kind", kind);
+                json.member("status", status);
+                json.member("size", size);
+                json.member("repository", repositoryId);
+                json.member("millis", millis);
+                json.member("file", path);
+                json.endObject();
+                writeLine(json.toString());
+            }
+        } catch (IOException ex) {
+            fail(ex);
+        }
+    }
+
+    /**
+     * Closes the report file.
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+            Logger.info("Resolve report wrote : " + file.getAbsolutePath());
+        } catch (IOException ex) {
+            fail(ex);
+        } finally {
+            IOUtils.closeQuietly(writer);
+            writer = null;
+        }
+    }
+
+    private void writeLine(String line) throws IOException {
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    private void fail(IOException ex) {
+        Logger.warn("Failed to write resolve report. : " + file.getAbsolutePath(), ex);
+        IOUtils.closeQuietly(writer);
+        writer = null;
+    }
+
+    private static String toCsv(String[] values) {
+        StringBuilder buf = new StringBuilder(256);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                buf.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                buf.append(value);
+            }
+        }
+        return buf.toString();
+    }
+}
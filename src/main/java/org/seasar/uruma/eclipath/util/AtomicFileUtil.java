@@ -0,0 +1,99 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Utility class which replaces file contents atomically.
+ *
+ * @author y-komori
+ */
+public class AtomicFileUtil {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFileUtil() {
+    }
+
+    /**
+     * Writes the specified contents to the file only if they differ from the
+     * current contents. The contents are written to a temporary file in the
+     * same directory first, and then moved to the target file.
+     *
+     * @param file
+     *        target file
+     * @param contents
+     *        new contents
+     * @return {@code true} if the file is written, {@code false} if the file
+     *         already has the same contents
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public static boolean writeIfChanged(File file, byte[] contents) throws IOException {
+        AssertionUtil.assertNotNull("file", file);
+        AssertionUtil.assertNotNull("contents", contents);
+        if (hasSameContents(file, contents)) {
+            return false;
+        }
+
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Failed to create directory. : " + dir.getAbsolutePath());
+        }
+
+        File tempFile = File.createTempFile(file.getName() + ".", TEMP_SUFFIX, dir);
+        OutputStream os = null;
+        try {
+            os = new FileOutputStream(tempFile);
+            os.write(contents);
+            os.close();
+            os = null;
+            move(tempFile, file);
+            return true;
+        } finally {
+            IOUtils.closeQuietly(os);
+            if (tempFile.exists()) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private static boolean hasSameContents(File file, byte[] contents) throws IOException {
+        if (!file.isFile() || file.length() != contents.length) {
+            return false;
+        }
+        return Arrays.equals(FileUtils.readFileToByteArray(file), contents);
+    }
+
+    private static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.Logger;
+
+/**
+ * Utility class for exclusive file locks shared between processes.<br />
+ * File locks are held by the whole JVM, so callers must serialize their
+ * threads by themselves.
+ *
+ * @author y-komori
+ */
+public class FileLockUtil {
+    private FileLockUtil() {
+    }
+
+    /**
+     * Acquires the exclusive lock of the specified lock file. The file and
+     * its parent directories are created if they don't exist. This method
+     * blocks until the lock is acquired.
+     *
+     * @param lockFile
+     *        lock file
+     * @return acquired lock, which must be passed to {@link #release(FileLock)}
+     * @throws IOException
+     *         if the lock can not be acquired
+     */
+    public static FileLock lock(File lockFile) throws IOException {
+        AssertionUtil.assertNotNull("lockFile", lockFile);
+        File dir = lockFile.getParentFile();
+        if (!dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Failed to create directory : " + dir.getAbsolutePath());
+        }
+        RandomAccessFile raf = new RandomAccessFile(lockFile, "rw");
+        try {
+            return raf.getChannel().lock();
+        } catch (IOException ex) {
+            IOUtils.closeQuietly(raf);
+            throw ex;
+        } catch (RuntimeException ex) {
+            IOUtils.closeQuietly(raf);
+            throw ex;
+        }
+    }
+
+    /**
+     * Releases the lock and closes its channel.
+     *
+     * @param lock
+     *        lock to release, may be {@code null}
+     */
+    public static void release(FileLock lock) {
+        if (lock == null) {
+            return;
+        }
+        try {
+            lock.release();
+        } catch (IOException ex) {
+            Logger.debug("Failed to release lock. : " + ex.getLocalizedMessage());
+        } finally {
+            IOUtils.closeQuietly(lock.channel());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simple streaming writer for JSON documents.<br />
+ * Objects and arrays are written with 2 spaces indent. If the writer is
+ * created as compact, the document is written in a single line, which is
+ * suitable for JSON Lines.
+ *
+ * @author y-komori
+ */
+public class JsonWriter {
+    private static final String INDENT = "  ";
+
+    private final StringBuilder buf = new StringBuilder(1024);
+
+    private final boolean compact;
+
+    /**
+     * Whether the current container has any member.
+     */
+    private final List<Boolean> hasMember = new ArrayList<Boolean>();
+
+    private boolean afterName;
+
+    /**
+     * Constructs new instance which writes an indented document.
+     */
+    public JsonWriter() {
+        this(false);
+    }
+
+    /**
+     * Constructs new instance.
+     *
+     * @param compact
+     *        if {@code true}, writes the document in a single line
+     */
+    public JsonWriter(boolean compact) {
+        this.compact = compact;
+    }
+
+    public JsonWriter beginObject() {
+        beforeValue();
+        buf.append('{');
+        hasMember.add(Boolean.FALSE);
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        return end('}');
+    }
+
+    public JsonWriter beginArray() {
+        beforeValue();
+        buf.append('[');
+        hasMember.add(Boolean.FALSE);
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        return end(']');
+    }
+
+    public JsonWriter name(String name) {
+        beforeValue();
+        appendString(name);
+        buf.append(compact ? ":" : ": ");
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        beforeValue();
+        if (value == null) {
+            buf.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        beforeValue();
+        buf.append(value);
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        beforeValue();
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buf.append("null");
+        } else {
+            buf.append(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        beforeValue();
+        buf.append(value);
+        return this;
+    }
+
+    /**
+     * Writes a member whose value is a string.
+     */
+    public JsonWriter member(String name, String value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member whose value is a number.
+     */
+    public JsonWriter member(String name, long value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member whose value is a number.
+     */
+    public JsonWriter member(String name, double value) {
+        return name(name).value(value);
+    }
+
+    /**
+     * Writes a member whose value is a boolean.
+     */
+    public JsonWriter member(String name, boolean value) {
+        return name(name).value(value);
+    }
+
+    @Override
+    public String toString() {
+        return buf.toString();
+    }
+
+    private JsonWriter end(char c) {
+        int depth = hasMember.size() - 1;
+        boolean any = hasMember.remove(depth);
+        if (any) {
+            newLine(depth);
+        }
+        buf.append(c);
+        return this;
+    }
+
+    private void beforeValue() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        int depth = hasMember.size();
+        if (depth == 0) {
+            return;
+        }
+        if (hasMember.get(depth - 1)) {
+            buf.append(',');
+        } else {
+            hasMember.set(depth - 1, Boolean.TRUE);
+        }
+        newLine(depth);
+    }
+
+    private void newLine(int depth) {
+        if (compact) {
+            return;
+        }
+        buf.append('\n');
+        for (int i = 0; i < depth; i++) {
+            buf.append(INDENT);
+        }
+    }
+
+    private void appendString(String value) {
+        buf.append('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                buf.append("\\\"");
+                break;
+            case '\\':
+                buf.append("\\\\");
+                break;
+            case '\n':
+                buf.append("\\n");
+                break;
+            case '\r':
+                buf.append("\\r");
+                break;
+            case '\t':
+                buf.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    buf.append(String.format("\\u%04x", (int) c));
+                } else {
+                    buf.append(c);
+                }
+            }
+        }
+        buf.append('"');
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.model.MaterializationStrategy;
+
+/**
+ * Utility class which places a file of the local repository into another
+ * directory according to {@link MaterializationStrategy}.<br />
+ * When a link can not be created, for example because the directories are on
+ * different file systems, the file is copied with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+ * instead. Such a failure is remembered per destination directory so that it
+ * is not retried for every file.<br />
+ * {@link MaterializationStrategy#REFLINK} is only supported on Linux with GNU
+ * coreutils, because it is delegated to {@code cp --reflink=always}. The
+ * support is probed once, and the file is copied on other platforms.
+ *
+ * @author y-komori
+ */
+public class MaterializationUtil {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final Map<String, Boolean> unsupported = new ConcurrentHashMap<String, Boolean>();
+
+    private static volatile Boolean reflinkSupported;
+
+    private MaterializationUtil() {
+    }
+
+    /**
+     * Places {@code srcFile} at {@code destFile}. An existing destination file
+     * is replaced.
+     *
+     * @param srcFile
+     *        source file
+     * @param destFile
+     *        destination file
+     * @param strategy
+     *        strategy to try first
+     * @return the strategy actually used
+     * @throws IOException
+     *         if the file could not be placed with any strategy
+     */
+    public static MaterializationStrategy materialize(File srcFile, File destFile, MaterializationStrategy strategy)
+            throws IOException {
+        AssertionUtil.assertNotNull("srcFile", srcFile);
+        AssertionUtil.assertNotNull("destFile", destFile);
+        AssertionUtil.assertNotNull("strategy", strategy);
+
+        File destDir = destFile.getAbsoluteFile().getParentFile();
+        if (!destDir.mkdirs() && !destDir.isDirectory()) {
+            throw new IOException("Failed to create directory. : " + destDir.getAbsolutePath());
+        }
+
+        switch (strategy) {
+        case HARDLINK:
+        case AUTO:
+            if (tryHardLink(srcFile, destFile)) {
+                return MaterializationStrategy.HARDLINK;
+            }
+            break;
+        case SYMLINK:
+            if (trySymbolicLink(srcFile, destFile)) {
+                return MaterializationStrategy.SYMLINK;
+            }
+            break;
+        case REFLINK:
+            if (tryReflink(srcFile, destFile)) {
+                return MaterializationStrategy.REFLINK;
+            }
+            break;
+        default:
+            break;
+        }
+
+        copy(srcFile, destFile);
+        return MaterializationStrategy.COPY;
+    }
+
+    private static boolean tryHardLink(File srcFile, File destFile) throws IOException {
+        String key = createKey(MaterializationStrategy.HARDLINK, destFile);
+        if (unsupported.containsKey(key)) {
+            return false;
+        }
+        File tempFile = createTempFile(destFile);
+        try {
+            tempFile.delete();
+            Files.createLink(tempFile.toPath(), srcFile.toPath());
+            replace(tempFile, destFile);
+            return true;
+        } catch (IOException ex) {
+            markUnsupported(key, ex);
+            return false;
+        } catch (UnsupportedOperationException ex) {
+            markUnsupported(key, ex);
+            return false;
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private static boolean trySymbolicLink(File srcFile, File destFile) throws IOException {
+        String key = createKey(MaterializationStrategy.SYMLINK, destFile);
+        if (unsupported.containsKey(key)) {
+            return false;
+        }
+        File tempFile = createTempFile(destFile);
+        try {
+            tempFile.delete();
+            Files.createSymbolicLink(tempFile.toPath(), srcFile.getAbsoluteFile().toPath());
+            replace(tempFile, destFile);
+            return true;
+        } catch (IOException ex) {
+            markUnsupported(key, ex);
+            return false;
+        } catch (UnsupportedOperationException ex) {
+            markUnsupported(key, ex);
+            return false;
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private static boolean tryReflink(File srcFile, File destFile) throws IOException {
+        if (!isReflinkSupported()) {
+            return false;
+        }
+        String key = createKey(MaterializationStrategy.REFLINK, destFile);
+        if (unsupported.containsKey(key)) {
+            return false;
+        }
+        File tempFile = createTempFile(destFile);
+        try {
+            Process process = new ProcessBuilder("cp", "--reflink=always", srcFile.getAbsolutePath(),
+                    tempFile.getAbsolutePath()).redirectErrorStream(true).start();
+            IOUtils.closeQuietly(process.getOutputStream());
+            IOUtils.toByteArray(process.getInputStream());
+            int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                markUnsupported(key, new IOException("cp --reflink exited with " + exitCode));
+                return false;
+            }
+            replace(tempFile, destFile);
+            return true;
+        } catch (IOException ex) {
+            markUnsupported(key, ex);
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * Checks whether {@code cp --reflink} is available. The check is done only
+     * once.
+     */
+    private static boolean isReflinkSupported() {
+        Boolean supported = reflinkSupported;
+        if (supported == null) {
+            supported = Boolean.valueOf(probeReflink());
+            reflinkSupported = supported;
+            if (!supported.booleanValue()) {
+                Logger.info("reflink is not supported on this platform. Falls back to copy.");
+            }
+        }
+        return supported.booleanValue();
+    }
+
+    private static boolean probeReflink() {
+        String osName = System.getProperty("os.name", "");
+        if (!osName.toLowerCase(Locale.ENGLISH).startsWith("linux")) {
+            return false;
+        }
+        try {
+            Process process = new ProcessBuilder("cp", "--version").redirectErrorStream(true).start();
+            IOUtils.closeQuietly(process.getOutputStream());
+            String output = new String(IOUtils.toByteArray(process.getInputStream()), "UTF-8");
+            return process.waitFor() == 0 && output.contains("GNU coreutils");
+        } catch (IOException ex) {
+            Logger.debug("Failed to execute cp. : " + ex.getLocalizedMessage());
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void copy(File srcFile, File destFile) throws IOException {
+        File tempFile = createTempFile(destFile);
+        FileInputStream is = null;
+        FileOutputStream os = null;
+        try {
+            is = new FileInputStream(srcFile);
+            os = new FileOutputStream(tempFile);
+            FileChannel in = is.getChannel();
+            FileChannel out = os.getChannel();
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            os.close();
+            os = null;
+            tempFile.setLastModified(srcFile.lastModified());
+            replace(tempFile, destFile);
+        } finally {
+            IOUtils.closeQuietly(is);
+            IOUtils.closeQuietly(os);
+            tempFile.delete();
+        }
+    }
+
+    private static void replace(File tempFile, File destFile) throws IOException {
+        Files.move(tempFile.toPath(), destFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Creates a temporary file with a unique name next to the destination
+     * file, so that concurrent builds don't overwrite each other's file.
+     */
+    private static File createTempFile(File destFile) throws IOException {
+        File destDir = destFile.getAbsoluteFile().getParentFile();
+        return Files.createTempFile(destDir.toPath(), "." + destFile.getName(), TEMP_SUFFIX).toFile();
+    }
+
+    private static String createKey(MaterializationStrategy strategy, File destFile) {
+        return strategy.confName() + ":" + destFile.getAbsoluteFile().getParent();
+    }
+
+    private static void markUnsupported(String key, Exception ex) {
+        if (unsupported.put(key, Boolean.TRUE) == null) {
+            Logger.debug("Falls back to copy. : " + key + " (" + ex.getLocalizedMessage() + ")");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link ThreadFactory} which creates named daemon threads.
+ *
+ * @author y-komori
+ */
+public class NamedThreadFactory implements ThreadFactory {
+    private final String prefix;
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Constructs new instance.
+     *
+     * @param name
+     *        thread name prefix
+     */
+    public NamedThreadFactory(String name) {
+        AssertionUtil.assertNotNull("name", name);
+        this.prefix = "eclipath-" + name + "-";
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.seasar.uruma.eclipath.Logger;
+
+/**
+ * Caches metadata of eclipse projects over goal executions in the same JVM.<br />
+ * The project name is reused as long as the modification time and the size of
+ * the {@code .project} file are unchanged. All methods are thread safe.
+ *
+ * @author y-komori
+ */
+public class ProjectMetadataCache {
+    public static final String DOT_PROJECT_FILENAME = ".project";
+
+    private static final String[] NAME_PATH = { "projectDescription", "name" };
+
+    /**
+     * Project names for each {@code .project} file.
+     */
+    private static final ConcurrentMap<File, NameEntry> projectNames = new ConcurrentHashMap<File, NameEntry>();
+
+    private ProjectMetadataCache() {
+    }
+
+    /**
+     * Returns the project name defined in the {@code .project} file.
+     *
+     * @param dotProjectFile
+     *        {@code .project} file
+     * @return project name, or {@code null} if the file has no name
+     * @throws IOException
+     *         if an I/O error occurs
+     * @throws XMLStreamException
+     *         if the file is not well-formed
+     */
+    public static String getProjectName(File dotProjectFile) throws IOException, XMLStreamException {
+        File file = dotProjectFile.getAbsoluteFile();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        NameEntry entry = projectNames.get(file);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.name;
+        }
+
+        Logger.info("Loading " + file.getPath());
+        String name = XmlUtil.findText(file, NAME_PATH);
+        if (name != null) {
+            projectNames.put(file, new NameEntry(lastModified, length, name));
+        }
+        return name;
+    }
+
+    private static class NameEntry {
+        final long lastModified;
+
+        final long length;
+
+        final String name;
+
+        NameEntry(long lastModified, long length, String name) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.name = name;
+        }
+    }
+}
@@ -29,10 +29,16 @@ import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
 public class ProjectUtil {
     public static final String ECLIPSE_PLUGINS_METADATA_DIR = ".metadata/.plugins";
 
-    public static final String DOT_PROJECT_FILENAME = ".project";
+    public static final String DOT_PROJECT_FILENAME = ProjectMetadataCache.DOT_PROJECT_FILENAME;
 
     public static final String JDT_PREFS_PATH = ".settings/org.eclipse.jdt.core.prefs";
 
+    /**
+     * Directory name under the build directory where this plugin stores its
+     * state and reports.
+     */
+    public static final String WORK_DIR = "eclipath";
+
     /**
      * Property key on pom.xml or settings.xml which indicate eclipse workspace
      * directory
@@ -43,25 +49,35 @@ public class ProjectUtil {
 
     }
 
+    /**
+     * Returns the eclipse project directory, which is the nearest directory
+     * containing {@code .project} from the directory of pom.xml. The result is
+     * cached for each build by
+     * {@link org.seasar.uruma.eclipath.ProjectLocations}.
+     *
+     * @param project
+     *        Maven project
+     * @return project directory
+     */
     public static File getProjectDir(MavenProject project) {
-        File dir = project.getFile().getParentFile();
-        while (true) {
-            File projectFile = new File(PathUtil.normalizePath(dir.getAbsolutePath()) + "/" + DOT_PROJECT_FILENAME);
-            if (projectFile.exists()) {
+        for (File dir = project.getFile().getAbsoluteFile().getParentFile(); dir != null; dir = dir.getParentFile()) {
+            if (new File(dir, DOT_PROJECT_FILENAME).exists()) {
                 return dir;
-            } else {
-                dir = dir.getParentFile();
-                if (dir == null) {
-                    throw new PluginRuntimeException("eclipse project directory is not found.");
-                }
             }
         }
+        throw new PluginRuntimeException("eclipse project directory is not found.");
     }
 
-    public static File getJdtPrefsFile(MavenProject project) {
-        File projectDir = getProjectDir(project);
-        String path = projectDir.getAbsolutePath() + System.getProperty("file.separator") + JDT_PREFS_PATH;
-        return new File(path);
+    /**
+     * Returns the working directory of this plugin, which is
+     * {@code ${project.build.directory}/eclipath}.
+     *
+     * @param project
+     *        Maven project
+     * @return working directory
+     */
+    public static File getWorkDir(MavenProject project) {
+        return new File(project.getBuild().getDirectory(), WORK_DIR);
     }
 
     /**
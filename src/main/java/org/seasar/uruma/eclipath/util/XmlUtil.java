@@ -0,0 +1,395 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.seasar.uruma.eclipath.exception.PluginRuntimeException;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+
+/**
+ * Utility class dealing with small XML files such as {@code .classpath}.<br />
+ * Files are parsed with StAX into a DOM tree, and written back with a simple
+ * serializer which indents elements by two spaces. The JAXP factories are
+ * looked up only once.
+ *
+ * @author y-komori
+ */
+public class XmlUtil {
+    private static final String ENCODING = "UTF-8";
+
+    private static final String INDENT = "  ";
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private static final XMLInputFactory inputFactory;
+
+    private static final DocumentBuilderFactory documentBuilderFactory;
+
+    static {
+        inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+    }
+
+    private XmlUtil() {
+    }
+
+    /**
+     * Creates a new empty document.
+     *
+     * @return new {@link Document}
+     */
+    public static Document newDocument() {
+        try {
+            synchronized (documentBuilderFactory) {
+                return documentBuilderFactory.newDocumentBuilder().newDocument();
+            }
+        } catch (ParserConfigurationException ex) {
+            throw new PluginRuntimeException(ex);
+        }
+    }
+
+    /**
+     * Parses the specified XML file.
+     *
+     * @param file
+     *        XML file
+     * @return parsed {@link Document}
+     * @throws IOException
+     *         if an I/O error occurs
+     * @throws XMLStreamException
+     *         if the file is not well-formed
+     */
+    public static Document parse(File file) throws IOException, XMLStreamException {
+        AssertionUtil.assertNotNull("file", file);
+        InputStream is = null;
+        XMLStreamReader reader = null;
+        try {
+            is = new BufferedInputStream(new FileInputStream(file));
+            reader = inputFactory.createXMLStreamReader(is);
+            return parse(reader);
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Returns the text of the first element at the specified path, without
+     * building a DOM tree. The scan stops as soon as the element is found.
+     *
+     * @param file
+     *        XML file
+     * @param path
+     *        local names of the elements from the root element
+     * @return text of the element, or {@code null} if not found
+     * @throws IOException
+     *         if an I/O error occurs
+     * @throws XMLStreamException
+     *         if the file is not well-formed, or the element has child elements
+     */
+    public static String findText(File file, String... path) throws IOException, XMLStreamException {
+        AssertionUtil.assertNotNull("file", file);
+        InputStream is = null;
+        XMLStreamReader reader = null;
+        try {
+            is = new BufferedInputStream(new FileInputStream(file));
+            reader = inputFactory.createXMLStreamReader(is);
+            return findText(reader, path);
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    private static String findText(XMLStreamReader reader, String[] path) throws XMLStreamException {
+        int depth = 0;
+        int matched = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (depth == matched && path[matched].equals(reader.getLocalName())) {
+                    matched++;
+                    if (matched == path.length) {
+                        return reader.getElementText();
+                    }
+                }
+                depth++;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                depth--;
+                if (depth < matched) {
+                    matched = depth;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static Document parse(XMLStreamReader reader) throws XMLStreamException {
+        Document document = newDocument();
+        Node current = document;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                Element element = createElement(document, reader);
+                current.appendChild(element);
+                current = element;
+                break;
+            case XMLStreamConstants.END_ELEMENT:
+                current = current.getParentNode();
+                break;
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                if (current != document) {
+                    current.appendChild(document.createTextNode(reader.getText()));
+                }
+                break;
+            case XMLStreamConstants.CDATA:
+                current.appendChild(document.createCDATASection(reader.getText()));
+                break;
+            case XMLStreamConstants.COMMENT:
+                current.appendChild(document.createComment(reader.getText()));
+                break;
+            case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                current.appendChild(document.createProcessingInstruction(reader.getPITarget(),
+                        reader.getPIData()));
+                break;
+            default:
+                break;
+            }
+        }
+        return document;
+    }
+
+    private static Element createElement(Document document, XMLStreamReader reader) {
+        Element element = document.createElementNS(emptyToNull(reader.getNamespaceURI()),
+                qualifiedName(reader.getPrefix(), reader.getLocalName()));
+
+        int nsCount = reader.getNamespaceCount();
+        for (int i = 0; i < nsCount; i++) {
+            String prefix = reader.getNamespacePrefix(i);
+            String name = prefix == null || prefix.length() == 0 ? XMLConstants.XMLNS_ATTRIBUTE
+                    : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+            element.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI, name, reader.getNamespaceURI(i));
+        }
+
+        int attrCount = reader.getAttributeCount();
+        for (int i = 0; i < attrCount; i++) {
+            element.setAttributeNS(emptyToNull(reader.getAttributeNamespace(i)),
+                    qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)),
+                    reader.getAttributeValue(i));
+        }
+        return element;
+    }
+
+    private static String qualifiedName(String prefix, String localName) {
+        if (prefix == null || prefix.length() == 0) {
+            return localName;
+        }
+        return prefix + ":" + localName;
+    }
+
+    private static String emptyToNull(String str) {
+        return str == null || str.length() == 0 ? null : str;
+    }
+
+    /**
+     * Writes the specified document to the stream in UTF-8. Whitespace-only
+     * text nodes are dropped and elements are re-indented.
+     *
+     * @param document
+     *        document to write
+     * @param out
+     *        output stream, not closed by this method
+     * @throws IOException
+     *         if an I/O error occurs
+     */
+    public static void write(Document document, OutputStream out) throws IOException {
+        AssertionUtil.assertNotNull("document", document);
+        AssertionUtil.assertNotNull("out", out);
+        Writer writer = new OutputStreamWriter(out, ENCODING);
+        writer.write("<?xml version=\"1.0\" encoding=\"" + ENCODING + "\" standalone=\"no\"?>");
+        NodeList children = document.getChildNodes();
+        int length = children.getLength();
+        for (int i = 0; i < length; i++) {
+            writeNode(writer, children.item(i), 0);
+        }
+        writer.write(LINE_SEPARATOR);
+        writer.flush();
+    }
+
+    private static void writeNode(Writer writer, Node node, int depth) throws IOException {
+        switch (node.getNodeType()) {
+        case Node.ELEMENT_NODE:
+            newLine(writer, depth);
+            writeElement(writer, (Element) node, depth);
+            break;
+        case Node.TEXT_NODE:
+            String text = node.getNodeValue();
+            if (text.trim().length() > 0) {
+                writeEscaped(writer, text, false);
+            }
+            break;
+        case Node.CDATA_SECTION_NODE:
+            writer.write("<![CDATA[");
+            writer.write(node.getNodeValue());
+            writer.write("]]>");
+            break;
+        case Node.COMMENT_NODE:
+            newLine(writer, depth);
+            writer.write("<!--");
+            writer.write(node.getNodeValue());
+            writer.write("-->");
+            break;
+        case Node.PROCESSING_INSTRUCTION_NODE:
+            ProcessingInstruction pi = (ProcessingInstruction) node;
+            newLine(writer, depth);
+            writer.write("<?");
+            writer.write(pi.getTarget());
+            if (pi.getData() != null && pi.getData().length() > 0) {
+                writer.write(" ");
+                writer.write(pi.getData());
+            }
+            writer.write("?>");
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static void writeElement(Writer writer, Element element, int depth) throws IOException {
+        writer.write("<");
+        writer.write(element.getTagName());
+        NamedNodeMap attributes = element.getAttributes();
+        int attrLength = attributes.getLength();
+        for (int i = 0; i < attrLength; i++) {
+            Attr attr = (Attr) attributes.item(i);
+            writer.write(" ");
+            writer.write(attr.getName());
+            writer.write("=\"");
+            writeEscaped(writer, attr.getValue(), true);
+            writer.write("\"");
+        }
+
+        NodeList children = element.getChildNodes();
+        int length = children.getLength();
+        if (!hasContent(children)) {
+            writer.write("/>");
+            return;
+        }
+        writer.write(">");
+
+        boolean hasElement = false;
+        for (int i = 0; i < length; i++) {
+            Node child = children.item(i);
+            short type = child.getNodeType();
+            hasElement |= type == Node.ELEMENT_NODE || type == Node.COMMENT_NODE
+                    || type == Node.PROCESSING_INSTRUCTION_NODE;
+            writeNode(writer, child, depth + 1);
+        }
+        if (hasElement) {
+            newLine(writer, depth);
+        }
+        writer.write("</");
+        writer.write(element.getTagName());
+        writer.write(">");
+    }
+
+    private static boolean hasContent(NodeList children) {
+        int length = children.getLength();
+        for (int i = 0; i < length; i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() != Node.TEXT_NODE || child.getNodeValue().trim().length() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void newLine(Writer writer, int depth) throws IOException {
+        writer.write(LINE_SEPARATOR);
+        for (int i = 0; i < depth; i++) {
+            writer.write(INDENT);
+        }
+    }
+
+    private static void writeEscaped(Writer writer, String str, boolean isAttribute) throws IOException {
+        int length = str.length();
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            switch (c) {
+            case '&':
+                writer.write("&amp;");
+                break;
+            case '<':
+                writer.write("&lt;");
+                break;
+            case '>':
+                writer.write("&gt;");
+                break;
+            case '"':
+                writer.write(isAttribute ? "&quot;" : "\"");
+                break;
+            case '\n':
+                writer.write(isAttribute ? "&#10;" : "\n");
+                break;
+            case '\r':
+                writer.write("&#13;");
+                break;
+            case '\t':
+                writer.write(isAttribute ? "&#9;" : "\t");
+                break;
+            default:
+                writer.write(c);
+                break;
+            }
+        }
+    }
+}
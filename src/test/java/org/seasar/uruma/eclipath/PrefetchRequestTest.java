@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import static org.junit.Assert.*;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Test;
+import org.seasar.uruma.eclipath.model.EclipathArtifact;
+
+/**
+ * @author y-komori
+ */
+public class PrefetchRequestTest {
+
+    @Test
+    public void testRoundTrip() {
+        PrefetchRequest request = new PrefetchRequest(ArtifactHelper.SOURCES_CLASSIFIER, createArtifact(null),
+                "/work/project", "lib/commons-lang-2.6.jar", "lib/sources/commons-lang-2.6-sources.jar",
+                "/work/project/lib/sources/commons-lang-2.6-sources.jar");
+
+        PrefetchRequest parsed = PrefetchRequest.parse(request.toLine());
+
+        assertNotNull(parsed);
+        assertEquals(request.toLine(), parsed.toLine());
+        assertEquals(request.getKey(), parsed.getKey());
+        assertTrue(parsed.isSources());
+        assertEquals("commons-lang", parsed.getGroupId());
+        assertEquals("commons-lang", parsed.getArtifactId());
+        assertEquals("2.6", parsed.getVersion());
+        assertEquals("jar", parsed.getType());
+        assertNull(parsed.getBaseClassifier());
+        assertEquals("/work/project", parsed.getProjectDir());
+        assertEquals("lib/commons-lang-2.6.jar", parsed.getLibraryPath());
+        assertEquals("lib/sources/commons-lang-2.6-sources.jar", parsed.getAttachmentPath());
+        assertEquals("/work/project/lib/sources/commons-lang-2.6-sources.jar", parsed.getDestination());
+        assertEquals(0, parsed.getAttempts());
+    }
+
+    @Test
+    public void testRoundTripWithoutDestination() {
+        PrefetchRequest request = new PrefetchRequest(ArtifactHelper.JAVADOC_CLASSIFIER, createArtifact("jdk15"),
+                "/work/project", "M2_REPO/commons-lang/commons-lang/2.6/commons-lang-2.6-jdk15.jar",
+                "jar:file:/repo/commons-lang-2.6-jdk15-javadoc.jar!/", null);
+
+        PrefetchRequest parsed = PrefetchRequest.parse(request.toLine());
+
+        assertNotNull(parsed);
+        assertFalse(parsed.isSources());
+        assertEquals("jdk15", parsed.getBaseClassifier());
+        assertNull(parsed.getDestination());
+        assertEquals(request.getKey(), parsed.getKey());
+    }
+
+    @Test
+    public void testRetryStateIsKept() {
+        PrefetchRequest request = new PrefetchRequest(ArtifactHelper.SOURCES_CLASSIFIER, createArtifact(null),
+                "/work/project", "lib/commons-lang-2.6.jar", "lib/sources/commons-lang-2.6-sources.jar", null);
+        String key = request.getKey();
+        request.retryLater(60000L);
+        request.retryLater(60000L);
+
+        PrefetchRequest parsed = PrefetchRequest.parse(request.toLine());
+
+        assertNotNull(parsed);
+        assertEquals(2, parsed.getAttempts());
+        assertFalse(parsed.isReady(System.currentTimeMillis()));
+        assertEquals(key, parsed.getKey());
+    }
+
+    @Test
+    public void testParseBrokenLine() {
+        assertNull(PrefetchRequest.parse(""));
+        assertNull(PrefetchRequest.parse("sources\tcommons-lang\tcommons-lang\t2.6"));
+        assertNull(PrefetchRequest.parse("sources\tg\ta\t1.0\tjar\t-\t/p\tlib/a.jar\tlib/a-sources.jar\t-\tx\t0"));
+    }
+
+    private EclipathArtifact createArtifact(String classifier) {
+        Artifact artifact = new DefaultArtifact("commons-lang", "commons-lang", "2.6", Artifact.SCOPE_COMPILE,
+                "jar", classifier, new DefaultArtifactHandler("jar"));
+        return new EclipathArtifact(artifact);
+    }
+}
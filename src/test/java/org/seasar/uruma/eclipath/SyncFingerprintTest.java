@@ -0,0 +1,121 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author y-komori
+ */
+public class SyncFingerprintTest {
+    private static final long LAST_MODIFIED = 1000000000000L;
+
+    private File dir;
+
+    private File stateFile;
+
+    private File libFile;
+
+    private File sourcesFile;
+
+    @Before
+    public void setUp() throws IOException {
+        Logger.initialize(new SystemStreamLog());
+        dir = Files.createTempDirectory("eclipath").toFile();
+        stateFile = new File(dir, "target/eclipath/sync.state");
+        libFile = new File(dir, "lib/commons-lang-2.6.jar");
+        sourcesFile = new File(dir, "repository/commons-lang-2.6-sources.jar");
+        FileUtils.writeStringToFile(libFile, "lib", "UTF-8");
+        assertTrue(libFile.setLastModified(LAST_MODIFIED));
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testSameInputs() {
+        create("project").store(stateFile);
+
+        assertTrue(create("project").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testNoStateFile() {
+        assertFalse(create("project").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testValueChanged() {
+        create("project").store(stateFile);
+
+        assertFalse(create("repository").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testFileModified() throws IOException {
+        create("project").store(stateFile);
+        assertTrue(libFile.setLastModified(LAST_MODIFIED + 1000));
+
+        assertFalse(create("project").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testFileResized() throws IOException {
+        create("project").store(stateFile);
+        FileUtils.writeStringToFile(libFile, "library", "UTF-8");
+        assertTrue(libFile.setLastModified(LAST_MODIFIED));
+
+        assertFalse(create("project").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testFileAppeared() throws IOException {
+        create("project").store(stateFile);
+        FileUtils.writeStringToFile(sourcesFile, "sources", "UTF-8");
+
+        assertFalse(create("project").isSameAs(stateFile, 0));
+    }
+
+    @Test
+    public void testExpired() throws IOException {
+        create("project").store(stateFile);
+        String state = FileUtils.readFileToString(stateFile, "ISO-8859-1");
+        FileUtils.writeStringToFile(stateFile, state.replaceAll("created=\\d+", "created=0"), "ISO-8859-1");
+
+        assertTrue(create("project").isSameAs(stateFile, 0));
+        assertFalse(create("project").isSameAs(stateFile, 60 * 60 * 1000));
+    }
+
+    private SyncFingerprint create(String policy) {
+        SyncFingerprint fingerprint = new SyncFingerprint();
+        fingerprint.add("policy", policy);
+        fingerprint.addFile("lib", libFile);
+        fingerprint.addFile("localSources", sourcesFile);
+        return fingerprint;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.classpath;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.seasar.uruma.eclipath.Logger;
+import org.seasar.uruma.eclipath.model.ClasspathKind;
+import org.w3c.dom.Element;
+
+/**
+ * @author y-komori
+ */
+public class EclipseClasspathTest {
+    private static final String COMMONS_LANG = "lib/commons-lang-2.6.jar";
+
+    private static final String LOG4J = "lib/log4j-1.2.17.jar";
+
+    private static final String LOG4J_API = "lib/log4j-1.2-api-2.0.jar";
+
+    private File projectDir;
+
+    private EclipseClasspath classpath;
+
+    @Before
+    public void setUp() throws IOException {
+        Logger.initialize(new SystemStreamLog());
+        projectDir = Files.createTempDirectory("eclipath").toFile();
+        InputStream is = getClass().getResourceAsStream("sample.classpath");
+        try {
+            FileUtils.copyInputStreamToFile(is, new File(projectDir, ".classpath"));
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        classpath = new EclipseClasspath(projectDir);
+        classpath.load();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(projectDir);
+    }
+
+    @Test
+    public void testLoad() {
+        assertEquals(4, classpath.getAllClasspathEntries().size());
+        assertEquals(COMMONS_LANG, classpath.getPath(classpath.findClasspathEntry(COMMONS_LANG)));
+        assertNull(classpath.findClasspathEntry("lib/unknown-1.0.jar"));
+
+        assertPaths(classpath.findClasspathEntriesByKey("commons-lang:jar"), COMMONS_LANG);
+        assertPaths(classpath.findClasspathEntriesByKey("log4j:jar"), LOG4J, LOG4J_API);
+        assertPaths(classpath.findClasspathEntriesByKey("log4j-1.2-api:jar"), LOG4J_API);
+        assertPaths(classpath.findClasspathEntriesByKey("junit:jar"), "M2_REPO/junit/junit/4.8.2/junit-4.8.2.jar");
+        assertTrue(classpath.findClasspathEntriesByKey("unknown:jar").isEmpty());
+    }
+
+    @Test
+    public void testAddClasspathEntry() {
+        classpath.addClasspathEntry(ClasspathKind.LIB, "lib/commons-lang-2.5.jar", null, null);
+
+        Element added = classpath.findClasspathEntry("lib/commons-lang-2.5.jar");
+        assertNotNull(added);
+        assertPaths(classpath.findClasspathEntriesByKey("commons-lang:jar"), COMMONS_LANG,
+                "lib/commons-lang-2.5.jar");
+        assertEquals(1, classpath.getAddedEntryCount());
+    }
+
+    @Test
+    public void testRemoveClasspathEntryElement() {
+        classpath.removeClasspathEntryElement(classpath.findClasspathEntry(LOG4J_API));
+
+        assertNull(classpath.findClasspathEntry(LOG4J_API));
+        assertTrue(classpath.findClasspathEntriesByKey("log4j-1.2-api:jar").isEmpty());
+        assertPaths(classpath.findClasspathEntriesByKey("log4j:jar"), LOG4J);
+        assertEquals(3, classpath.getAllClasspathEntries().size());
+        assertEquals(1, classpath.getRemovedEntryCount());
+    }
+
+    @Test
+    public void testSetSourcePath() {
+        Element entry = classpath.findClasspathEntry(COMMONS_LANG);
+        classpath.setSourcePath(entry, null);
+        classpath.setSourcePath(classpath.findClasspathEntry(LOG4J), "lib/sources/log4j-1.2.17-sources.jar");
+
+        assertSame(entry, classpath.findClasspathEntry(COMMONS_LANG));
+        assertFalse(entry.hasAttribute(EclipseClasspath.ATTR_SOURCEPATH));
+        assertPaths(classpath.findClasspathEntriesByKey("commons-lang:jar"), COMMONS_LANG);
+        assertPaths(classpath.findClasspathEntriesByKey("log4j:jar"), LOG4J, LOG4J_API);
+    }
+
+    @Test
+    public void testRemoveDuplicatedEntries() {
+        Element original = classpath.findClasspathEntry(COMMONS_LANG);
+        classpath.addClasspathEntry(ClasspathKind.LIB, COMMONS_LANG, null, null);
+
+        assertSame(original, classpath.findClasspathEntry(COMMONS_LANG));
+        List<Element> duplicated = classpath.findClasspathEntriesByKey("commons-lang:jar");
+        assertEquals(2, duplicated.size());
+
+        classpath.removeClasspathEntryElements(duplicated);
+
+        assertNull(classpath.findClasspathEntry(COMMONS_LANG));
+        assertTrue(classpath.findClasspathEntriesByKey("commons-lang:jar").isEmpty());
+        assertEquals(3, classpath.getAllClasspathEntries().size());
+    }
+
+    @Test
+    public void testWriteAndLoad() {
+        classpath.removeClasspathEntryElement(classpath.findClasspathEntry(LOG4J));
+        classpath.addClasspathEntry(ClasspathKind.LIB, "lib/log4j-1.2.16.jar", null, null);
+        classpath.write();
+
+        EclipseClasspath reloaded = new EclipseClasspath(projectDir);
+        reloaded.load();
+
+        assertNull(reloaded.findClasspathEntry(LOG4J));
+        assertPaths(reloaded.findClasspathEntriesByKey("log4j:jar"), LOG4J_API, "lib/log4j-1.2.16.jar");
+        assertEquals(4, reloaded.getAllClasspathEntries().size());
+    }
+
+    private void assertPaths(List<Element> entries, String... paths) {
+        assertEquals(paths.length, entries.size());
+        for (int i = 0; i < paths.length; i++) {
+            assertEquals(paths[i], classpath.getPath(entries.get(i)));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.model;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @author y-komori
+ */
+public class ArtifactFileNameTest {
+
+    @Test
+    public void testParse() {
+        ArtifactFileName fileName = ArtifactFileName.parse("lib/commons-lang-2.6.jar");
+
+        assertEquals("commons-lang", fileName.getArtifactId());
+        assertEquals("2.6", fileName.getVersion());
+        assertEquals("jar", fileName.getType());
+        assertEquals("commons-lang:jar", fileName.getVersionIndependentKey());
+    }
+
+    @Test
+    public void testParseClassifier() {
+        ArtifactFileName fileName = ArtifactFileName.parse("lib/sources/commons-lang-2.6-sources.jar");
+
+        assertEquals("commons-lang", fileName.getArtifactId());
+        assertEquals("2.6-sources", fileName.getVersion());
+        assertEquals("jar", fileName.getType());
+    }
+
+    @Test
+    public void testParseSnapshot() {
+        ArtifactFileName fileName = ArtifactFileName.parse("foo-bar-1.0.0-SNAPSHOT.jar");
+        assertEquals("foo-bar", fileName.getArtifactId());
+        assertEquals("1.0.0-SNAPSHOT", fileName.getVersion());
+
+        fileName = ArtifactFileName.parse("foo-bar-2-SNAPSHOT.jar");
+        assertEquals("foo-bar", fileName.getArtifactId());
+        assertEquals("2-SNAPSHOT", fileName.getVersion());
+    }
+
+    @Test
+    public void testParseNumericSegment() {
+        ArtifactFileName fileName = ArtifactFileName.parse("M2_REPO/org/bouncycastle/bcprov-jdk15on-1.50.jar");
+        assertEquals("bcprov-jdk15on", fileName.getArtifactId());
+        assertEquals("1.50", fileName.getVersion());
+
+        fileName = ArtifactFileName.parse("lib/plexus-container-default-1.0-alpha-9-stable-1.jar");
+        assertEquals("plexus-container-default", fileName.getArtifactId());
+        assertEquals("1.0-alpha-9-stable-1", fileName.getVersion());
+    }
+
+    @Test
+    public void testParseNotVersioned() {
+        assertNull(ArtifactFileName.parse("lib/tools.jar"));
+        assertNull(ArtifactFileName.parse("lib/foo-bar.jar"));
+        assertTrue(ArtifactFileName.parseAll("lib/tools.jar").isEmpty());
+    }
+
+    @Test
+    public void testParseAllDottedSegment() {
+        List<ArtifactFileName> fileNames = ArtifactFileName.parseAll("lib/log4j-1.2-api-2.0.jar");
+
+        assertEquals(2, fileNames.size());
+        assertEquals("log4j", fileNames.get(0).getArtifactId());
+        assertEquals("1.2-api-2.0", fileNames.get(0).getVersion());
+        assertEquals("log4j-1.2-api", fileNames.get(1).getArtifactId());
+        assertEquals("2.0", fileNames.get(1).getVersion());
+        assertEquals("log4j-1.2-api:jar", fileNames.get(1).getVersionIndependentKey());
+    }
+
+    @Test
+    public void testParseAllSingleSplit() {
+        List<ArtifactFileName> fileNames = ArtifactFileName.parseAll("lib/log4j-1.2.17.jar");
+
+        assertEquals(1, fileNames.size());
+        assertEquals("log4j", fileNames.get(0).getArtifactId());
+        assertEquals("1.2.17", fileNames.get(0).getVersion());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.report;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author y-komori
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testIndexOfSmallValues() {
+        for (long value = 0; value < LatencyHistogram.SUB_BUCKET_COUNT; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertEquals(value, index);
+            assertEquals(value, LatencyHistogram.highestValueOf(index));
+        }
+    }
+
+    @Test
+    public void testIndexOfLargeValues() {
+        assertEquals(16, LatencyHistogram.indexOf(16));
+        assertEquals(31, LatencyHistogram.indexOf(31));
+        assertEquals(32, LatencyHistogram.indexOf(32));
+        assertEquals(32, LatencyHistogram.indexOf(33));
+        assertEquals(33, LatencyHistogram.indexOf(34));
+        assertEquals(33L, LatencyHistogram.highestValueOf(32));
+        assertEquals(35L, LatencyHistogram.highestValueOf(33));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (int bit = 0; bit < 63; bit++) {
+            long power = 1L << bit;
+            long[] values = { power - 1, power, power + 1, power + (power >>> 1) };
+            for (long value : values) {
+                if (value < 0) {
+                    continue;
+                }
+                int index = LatencyHistogram.indexOf(value);
+                assertTrue("value " + value, value <= LatencyHistogram.highestValueOf(index));
+                if (index > 0) {
+                    assertTrue("value " + value, value > LatencyHistogram.highestValueOf(index - 1));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMaxValue() {
+        int index = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueOf(index));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.0);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(51, histogram.getValueAtPercentile(50));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void testNegativeValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+}
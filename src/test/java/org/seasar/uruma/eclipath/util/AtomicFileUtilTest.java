@@ -0,0 +1,90 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author y-komori
+ */
+public class AtomicFileUtilTest {
+    private static final long LAST_MODIFIED = 1000000000000L;
+
+    private File dir;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("eclipath").toFile();
+        file = new File(dir, "test.txt");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testWriteNewFile() throws IOException {
+        assertTrue(AtomicFileUtil.writeIfChanged(new File(dir, "sub/test.txt"), "abc".getBytes("UTF-8")));
+
+        assertEquals("abc", FileUtils.readFileToString(new File(dir, "sub/test.txt"), "UTF-8"));
+    }
+
+    @Test
+    public void testSameContents() throws IOException {
+        FileUtils.writeStringToFile(file, "abc", "UTF-8");
+        assertTrue(file.setLastModified(LAST_MODIFIED));
+
+        assertFalse(AtomicFileUtil.writeIfChanged(file, "abc".getBytes("UTF-8")));
+
+        assertEquals(LAST_MODIFIED, file.lastModified());
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testDifferentContents() throws IOException {
+        FileUtils.writeStringToFile(file, "abc", "UTF-8");
+        assertTrue(file.setLastModified(LAST_MODIFIED));
+
+        assertTrue(AtomicFileUtil.writeIfChanged(file, "abd".getBytes("UTF-8")));
+
+        assertEquals("abd", FileUtils.readFileToString(file, "UTF-8"));
+        assertTrue(file.lastModified() != LAST_MODIFIED);
+        // the temporary file is moved to the target
+        assertEquals(1, dir.list().length);
+    }
+
+    @Test
+    public void testDifferentLength() throws IOException {
+        FileUtils.writeStringToFile(file, "abc", "UTF-8");
+
+        assertTrue(AtomicFileUtil.writeIfChanged(file, new byte[0]));
+
+        assertEquals(0, file.length());
+        assertEquals(1, dir.list().length);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * @author y-komori
+ */
+public class JsonWriterTest {
+
+    @Test
+    public void testIndentedObject() {
+        JsonWriter writer = new JsonWriter();
+        writer.beginObject();
+        writer.member("name", "eclipath");
+        writer.member("count", 3L);
+        writer.name("items").beginArray().value(1L).value(true).endArray();
+        writer.endObject();
+
+        assertEquals("{\n" //
+                + "  \"name\": \"eclipath\",\n" //
+                + "  \"count\": 3,\n" //
+                + "  \"items\": [\n" //
+                + "    1,\n" //
+                + "    true\n" //
+                + "  ]\n" //
+                + "}", writer.toString());
+    }
+
+    @Test
+    public void testCompactObject() {
+        JsonWriter writer = new JsonWriter(true);
+        writer.beginObject();
+        writer.member("a", 1L);
+        writer.name("b").beginObject().member("c", "d").endObject();
+        writer.name("e").beginArray().endArray();
+        writer.endObject();
+
+        assertEquals("{\"a\":1,\"b\":{\"c\":\"d\"},\"e\":[]}", writer.toString());
+    }
+
+    @Test
+    public void testEmptyContainers() {
+        assertEquals("{}", new JsonWriter().beginObject().endObject().toString());
+        assertEquals("[]", new JsonWriter().beginArray().endArray().toString());
+    }
+
+    @Test
+    public void testArrayOfObjects() {
+        JsonWriter writer = new JsonWriter(true);
+        writer.beginArray();
+        writer.beginObject().member("id", 1L).endObject();
+        writer.beginObject().member("id", 2L).endObject();
+        writer.endArray();
+
+        assertEquals("[{\"id\":1},{\"id\":2}]", writer.toString());
+    }
+
+    @Test
+    public void testEscape() {
+        JsonWriter writer = new JsonWriter(true);
+        writer.beginArray();
+        writer.value("quote\" backslash\\ slash/");
+        writer.value("line\nreturn\rtab\t");
+        writer.value("\u0001\u001f");
+        writer.value("あ");
+        writer.endArray();
+
+        assertEquals("[\"quote\\\" backslash\\\\ slash/\",\"line\\nreturn\\rtab\\t\",\"\\u0001\\u001f\",\"あ\"]",
+                writer.toString());
+    }
+
+    @Test
+    public void testSpecialValues() {
+        JsonWriter writer = new JsonWriter(true);
+        writer.beginObject();
+        writer.member("string", (String) null);
+        writer.member("nan", Double.NaN);
+        writer.member("infinity", Double.POSITIVE_INFINITY);
+        writer.member("double", 1.5);
+        writer.member("flag", false);
+        writer.endObject();
+
+        assertEquals("{\"string\":null,\"nan\":null,\"infinity\":null,\"double\":1.5,\"flag\":false}",
+                writer.toString());
+    }
+}
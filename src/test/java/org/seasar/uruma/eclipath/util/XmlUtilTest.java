@@ -0,0 +1,149 @@
+/*
+ * Copyright 2004-2014 the Seasar Foundation and the Others.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific language
+ * governing permissions and limitations under the License.
+ */
+package org.seasar.uruma.eclipath.util;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * @author y-komori
+ */
+public class XmlUtilTest {
+    private static final String SAMPLE_CLASSPATH = "/org/seasar/uruma/eclipath/classpath/sample.classpath";
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("eclipath").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Document document = XmlUtil.parse(getSampleFile());
+
+        Document reparsed = XmlUtil.parse(writeToFile(document));
+
+        Element root = reparsed.getDocumentElement();
+        assertEquals("classpath", root.getTagName());
+        assertEquals(7, getChildElements(root).size());
+        assertElementEquals(document.getDocumentElement(), root);
+    }
+
+    @Test
+    public void testWriteIsStable() throws Exception {
+        Document document = XmlUtil.parse(getSampleFile());
+        byte[] first = toBytes(document);
+
+        byte[] second = toBytes(XmlUtil.parse(writeToFile(document)));
+
+        assertEquals(new String(first, "UTF-8"), new String(second, "UTF-8"));
+    }
+
+    @Test
+    public void testEscapedAttribute() throws Exception {
+        Document document = XmlUtil.parse(getSampleFile());
+        Element entry = getChildElements(document.getDocumentElement()).get(2);
+        entry.setAttribute("path", "lib/a&b\"c<d>\te.jar");
+
+        Document reparsed = XmlUtil.parse(writeToFile(document));
+
+        Element reparsedEntry = getChildElements(reparsed.getDocumentElement()).get(2);
+        assertEquals("lib/a&b\"c<d>\te.jar", reparsedEntry.getAttribute("path"));
+    }
+
+    @Test
+    public void testFindText() throws Exception {
+        File file = new File(dir, ".project");
+        FileUtils.writeStringToFile(file, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" //
+                + "<projectDescription>\n" //
+                + "  <comment></comment>\n" //
+                + "  <projects><name>other</name></projects>\n" //
+                + "  <name>eclipath</name>\n" //
+                + "</projectDescription>\n", "UTF-8");
+
+        assertEquals("eclipath", XmlUtil.findText(file, "projectDescription", "name"));
+        assertNull(XmlUtil.findText(file, "projectDescription", "buildSpec"));
+    }
+
+    private File getSampleFile() throws URISyntaxException {
+        return new File(getClass().getResource(SAMPLE_CLASSPATH).toURI());
+    }
+
+    private File writeToFile(Document document) throws IOException {
+        File file = new File(dir, ".classpath");
+        FileUtils.writeByteArrayToFile(file, toBytes(document));
+        return file;
+    }
+
+    private byte[] toBytes(Document document) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        XmlUtil.write(document, os);
+        return os.toByteArray();
+    }
+
+    private void assertElementEquals(Element expected, Element actual) {
+        assertEquals(expected.getTagName(), actual.getTagName());
+        NamedNodeMap expectedAttrs = expected.getAttributes();
+        assertEquals(expected.getTagName(), expectedAttrs.getLength(), actual.getAttributes().getLength());
+        for (int i = 0; i < expectedAttrs.getLength(); i++) {
+            Attr attr = (Attr) expectedAttrs.item(i);
+            assertEquals(attr.getName(), attr.getValue(), actual.getAttribute(attr.getName()));
+        }
+
+        List<Element> expectedChildren = getChildElements(expected);
+        List<Element> actualChildren = getChildElements(actual);
+        assertEquals(expected.getTagName(), expectedChildren.size(), actualChildren.size());
+        for (int i = 0; i < expectedChildren.size(); i++) {
+            assertElementEquals(expectedChildren.get(i), actualChildren.get(i));
+        }
+    }
+
+    private List<Element> getChildElements(Element parent) {
+        List<Element> result = new ArrayList<Element>();
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                result.add((Element) child);
+            }
+        }
+        return result;
+    }
+}